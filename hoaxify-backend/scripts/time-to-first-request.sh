@@ -0,0 +1,69 @@
+#!/usr/bin/env bash
+# Measures the wall-clock time from process launch until GET /api/1.0/users answers, and the
+# resident set size of the process at that point.
+#
+#   scripts/time-to-first-request.sh [runs] -- <command that starts the backend on $PORT>
+#   scripts/time-to-first-request.sh [runs] --compare
+#
+# e.g.
+#   scripts/time-to-first-request.sh 5 -- java -jar target/hoaxify-0.0.1-SNAPSHOT.jar --server.port=8080
+#   scripts/time-to-first-request.sh 5 -- target/hoaxify --server.port=8080
+#
+# --compare needs the layout from mvn -Pcds package. It launches the same classpath four ways, so
+# each change is measured on its own against one baseline: plain, with the CDS archive only, with lazy
+# initialization only, and with both.
+set -euo pipefail
+
+PORT=${PORT:-8080}
+RUNS=1
+if [[ $# -gt 0 && $1 != "--" && $1 != "--compare" ]]; then
+    RUNS=$1
+    shift
+fi
+
+measure() {
+    local label=$1
+    shift
+    for run in $(seq 1 "$RUNS"); do
+        local log="/tmp/hoaxify-ttfr-${label:-run}-$run.log"
+        local start end rss pid
+        start=$(date +%s%N)
+        "$@" > "$log" 2>&1 &
+        pid=$!
+        until curl -sf -o /dev/null "http://localhost:$PORT/api/1.0/users"; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "backend exited, see $log" >&2
+                exit 1
+            fi
+            sleep 0.02
+        done
+        end=$(date +%s%N)
+        rss=$(ps -o rss= -p "$pid")
+        echo "${label:+$label }run $run: $(( (end - start) / 1000000 )) ms to first request, rss $(( rss / 1024 )) MB"
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+    done
+}
+
+if [[ ${1:-} == "--compare" ]]; then
+    CDS=${CDS:-target/cds}
+    if [[ ! -f $CDS/hoaxify.jsa ]]; then
+        echo "no CDS archive in $CDS, run mvn -Pcds package first" >&2
+        exit 1
+    fi
+    app=(-cp "$CDS/app/application.jar:$CDS/app/BOOT-INF/lib/*" com.hoaxify.HoaxifyApplication --server.port="$PORT")
+    archive=-XX:SharedArchiveFile=$CDS/hoaxify.jsa
+    lazy=--spring.main.lazy-initialization=true
+    measure baseline java "${app[@]}"
+    measure cds java "$archive" "${app[@]}"
+    measure lazy java "${app[@]}" "$lazy"
+    measure cds+lazy java "$archive" "${app[@]}" "$lazy"
+    exit 0
+fi
+
+[[ ${1:-} == "--" ]] && shift
+if [[ $# -eq 0 ]]; then
+    echo "usage: $0 [runs] -- <command> | $0 [runs] --compare" >&2
+    exit 1
+fi
+measure "" "$@"
@@ -1,27 +1,41 @@
 package com.hoaxify;
 
+import com.hoaxify.configuration.TimedConstraintValidatorFactory;
 import com.hoaxify.user.User;
 import com.hoaxify.user.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.validation.beanvalidation.SpringConstraintValidatorFactory;
 
 import java.util.stream.IntStream;
 
 @SpringBootApplication
+@EnableScheduling
 public class HoaxifyApplication {
 
+    private static final int STARTUP_BUFFER_CAPACITY = 4096;
+
     public static void main(String[] args) {
-        SpringApplication.run(HoaxifyApplication.class, args);
+        SpringApplication application = new SpringApplication(HoaxifyApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_BUFFER_CAPACITY));
+        application.run(args);
     }
 
     @Bean
-    public LocalValidatorFactoryBean localValidatorFactoryBean() {
-        return new LocalValidatorFactoryBean();
+    public LocalValidatorFactoryBean localValidatorFactoryBean(AutowireCapableBeanFactory beanFactory, ObjectProvider<MeterRegistry> meterRegistry) {
+        LocalValidatorFactoryBean validatorFactory = new LocalValidatorFactoryBean();
+        validatorFactory.setConstraintValidatorFactory(new TimedConstraintValidatorFactory(new SpringConstraintValidatorFactory(beanFactory), meterRegistry));
+        return validatorFactory;
     }
 
     @Bean
@@ -0,0 +1,19 @@
+package com.hoaxify.audit;
+
+import lombok.Value;
+
+@Value
+public class LoginAttempt {
+
+    public enum Outcome {
+        SUCCESS, BAD_CREDENTIALS, FAILURE
+    }
+
+    long timestamp;
+
+    Outcome outcome;
+
+    String username;
+
+    String remoteAddress;
+}
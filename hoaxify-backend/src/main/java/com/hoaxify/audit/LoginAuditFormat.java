@@ -0,0 +1,106 @@
+package com.hoaxify.audit;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Binary layout of a login attempt in a segment file, big-endian:
+ *
+ * <pre>
+ * short  record length, from the timestamp to the end of the username
+ * long   timestamp, epoch millis
+ * byte   outcome ordinal
+ * byte   remote address length, then its UTF-8 bytes
+ * short  username length, then its UTF-8 bytes
+ * </pre>
+ *
+ * Segments are created zero-filled, so a record length of zero marks the end of what was written. The
+ * length is put after the rest of the record, so a reader of a live segment sees either zero or a whole
+ * record.
+ */
+final class LoginAuditFormat {
+
+    static final String SEGMENT_PREFIX = "login-audit-";
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    // segment names are prefix, number, '-', writer id, suffix; the number ends at the first '-'
+    private static final Pattern WRITER_ID = Pattern.compile("[A-Za-z0-9._-]+");
+
+    private static final int MAX_ADDRESS_BYTES = 255;
+
+    private static final int MAX_USERNAME_BYTES = 1024;
+
+    private static final LoginAttempt.Outcome[] OUTCOMES = LoginAttempt.Outcome.values();
+
+    private LoginAuditFormat() {
+    }
+
+    static boolean isValidWriterId(String writerId) {
+        return writerId != null && WRITER_ID.matcher(writerId).matches();
+    }
+
+    static int recordSize(byte[] body) {
+        return Short.BYTES + body.length;
+    }
+
+    // the record without its length, which put writes last
+    static byte[] encode(LoginAttempt attempt) {
+        byte[] address = truncate(attempt.getRemoteAddress(), MAX_ADDRESS_BYTES);
+        byte[] username = truncate(attempt.getUsername(), MAX_USERNAME_BYTES);
+        ByteBuffer record = ByteBuffer.allocate(Long.BYTES + 1 + 1 + address.length + Short.BYTES + username.length);
+        record.putLong(attempt.getTimestamp());
+        record.put((byte) attempt.getOutcome().ordinal());
+        record.put((byte) address.length);
+        record.put(address);
+        record.putShort((short) username.length);
+        record.put(username);
+        return record.array();
+    }
+
+    static void put(ByteBuffer segment, byte[] body) {
+        int start = segment.position();
+        segment.position(start + Short.BYTES);
+        segment.put(body);
+        VarHandle.releaseFence();
+        segment.putShort(start, (short) body.length);
+    }
+
+    // null at the end of the written part of a segment
+    static LoginAttempt decode(ByteBuffer segment) {
+        if (segment.remaining() < Short.BYTES) {
+            return null;
+        }
+        int length = segment.getShort();
+        if (length <= 0 || segment.remaining() < length) {
+            return null;
+        }
+        VarHandle.acquireFence();
+        long timestamp = segment.getLong();
+        LoginAttempt.Outcome outcome = OUTCOMES[segment.get()];
+        String address = readString(segment, segment.get() & 0xFF);
+        String username = readString(segment, segment.getShort() & 0xFFFF);
+        return new LoginAttempt(timestamp, outcome, username, address);
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] truncate(String value, int maxBytes) {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= maxBytes) {
+            return bytes;
+        }
+        byte[] truncated = new byte[maxBytes];
+        System.arraycopy(bytes, 0, truncated, 0, maxBytes);
+        return truncated;
+    }
+}
@@ -0,0 +1,166 @@
+package com.hoaxify.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records every Basic authentication attempt without touching the database. The authenticating
+ * thread only builds a {@link LoginAttempt} and offers it to a lock-free ring buffer; one drain thread
+ * appends the records to memory-mapped segment files, see {@link LoginAuditSegmentWriter}, and forces
+ * them to disk every {@code force-interval}. While there is nothing to write the drain thread sleeps
+ * until the next force is due, and the first attempt offered to the empty buffer wakes it.
+ *
+ * Segments are named after {@code writer-id}, the host name unless set, so nodes sharing a directory
+ * each rotate only their own.
+ *
+ * When the ring buffer is full the attempt is dropped and counted in
+ * {@code hoaxify.login-audit.dropped} rather than slowing logins down. Read the segments back with
+ * {@link LoginAuditReader}.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+public class LoginAuditLog {
+
+    private final MpscRingBuffer<LoginAttempt> buffer;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    private final long forceIntervalNanos;
+
+    private final String writerId;
+
+    private final Counter recorded;
+
+    private final Counter dropped;
+
+    private final Thread drainer = new Thread(this::run, "login-audit-writer");
+
+    private volatile boolean running = true;
+
+    // set while the drain thread is parked with nothing to write
+    private volatile boolean idle;
+
+    public LoginAuditLog(MeterRegistry meterRegistry,
+                         @Value("${hoaxify.login-audit.directory:login-audit}") String directory,
+                         @Value("${hoaxify.login-audit.buffer-size:65536}") int bufferSize,
+                         @Value("${hoaxify.login-audit.segment-size:16777216}") int segmentSize,
+                         @Value("${hoaxify.login-audit.max-segments:64}") int maxSegments,
+                         @Value("${hoaxify.login-audit.force-interval:1s}") Duration forceInterval,
+                         @Value("${hoaxify.login-audit.writer-id:}") String writerId) {
+        this.buffer = new MpscRingBuffer<>(bufferSize);
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.forceIntervalNanos = forceInterval.toNanos();
+        this.writerId = writerId.isEmpty() ? hostWriterId() : writerId;
+        this.recorded = Counter.builder("hoaxify.login-audit.recorded").register(meterRegistry);
+        this.dropped = Counter.builder("hoaxify.login-audit.dropped").register(meterRegistry);
+        Gauge.builder("hoaxify.login-audit.backlog", buffer, MpscRingBuffer::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        drainer.start();
+    }
+
+    @EventListener
+    public void onSuccess(AuthenticationSuccessEvent event) {
+        record(event.getAuthentication(), LoginAttempt.Outcome.SUCCESS);
+    }
+
+    @EventListener
+    public void onFailure(AbstractAuthenticationFailureEvent event) {
+        record(event.getAuthentication(), event.getException() instanceof BadCredentialsException
+                ? LoginAttempt.Outcome.BAD_CREDENTIALS
+                : LoginAttempt.Outcome.FAILURE);
+    }
+
+    public boolean record(LoginAttempt attempt) {
+        if (!running || !buffer.offer(attempt)) {
+            dropped.increment();
+            return false;
+        }
+        if (idle) {
+            LockSupport.unpark(drainer);
+        }
+        return true;
+    }
+
+    private void record(Authentication authentication, LoginAttempt.Outcome outcome) {
+        Object details = authentication.getDetails();
+        String remoteAddress = details instanceof WebAuthenticationDetails ? ((WebAuthenticationDetails) details).getRemoteAddress() : null;
+        record(new LoginAttempt(System.currentTimeMillis(), outcome, authentication.getName(), remoteAddress));
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        drainer.interrupt();
+        drainer.join();
+    }
+
+    private static String hostWriterId() {
+        try {
+            return InetAddress.getLocalHost().getHostName().replaceAll("[^A-Za-z0-9._-]", "_");
+        } catch (UnknownHostException e) {
+            return "node";
+        }
+    }
+
+    private void run() {
+        try (LoginAuditSegmentWriter writer = new LoginAuditSegmentWriter(directory, segmentSize, maxSegments, writerId)) {
+            long lastForce = System.nanoTime();
+            boolean dirty = false;
+            while (running || buffer.size() > 0) {
+                LoginAttempt attempt = buffer.poll();
+                if (attempt != null) {
+                    writer.append(attempt);
+                    recorded.increment();
+                    dirty = true;
+                    continue;
+                }
+                if (dirty && System.nanoTime() - lastForce >= forceIntervalNanos) {
+                    writer.force();
+                    lastForce = System.nanoTime();
+                    dirty = false;
+                }
+                idle = true;
+                // re-checked after publishing idle, so an offer racing with it either is seen here or unparks
+                if (running && buffer.size() == 0) {
+                    LockSupport.parkNanos(dirty ? lastForce + forceIntervalNanos - System.nanoTime() : forceIntervalNanos);
+                }
+                idle = false;
+            }
+        } catch (IOException | RuntimeException e) {
+            running = false;
+            log.error("Login audit log stopped, attempts are no longer recorded", e);
+        }
+    }
+}
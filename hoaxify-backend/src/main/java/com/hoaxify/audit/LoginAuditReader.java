@@ -0,0 +1,120 @@
+package com.hoaxify.audit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads login attempts back from the segment files written by {@link LoginAuditLog}, oldest first.
+ * Safe to run against a directory that is still being written; records appended after a segment is
+ * mapped may or may not be seen.
+ *
+ * From a packaged build:
+ * <pre>
+ * java -cp hoaxify.jar -Dloader.main=com.hoaxify.audit.LoginAuditReader org.springframework.boot.loader.PropertiesLauncher \
+ *     login-audit [--username=NAME] [--outcome=SUCCESS|BAD_CREDENTIALS|FAILURE] [--since=2021-09-01T00:00:00Z]
+ * </pre>
+ */
+public final class LoginAuditReader {
+
+    private LoginAuditReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: LoginAuditReader <directory> [--username=NAME] [--outcome=OUTCOME] [--since=ISO-INSTANT]");
+            System.exit(2);
+        }
+        Predicate<LoginAttempt> filter = attempt -> true;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--username=")) {
+                filter = filter.and(attempt -> attempt.getUsername().equals(value));
+            } else if (arg.startsWith("--outcome=")) {
+                LoginAttempt.Outcome outcome = LoginAttempt.Outcome.valueOf(value);
+                filter = filter.and(attempt -> attempt.getOutcome() == outcome);
+            } else if (arg.startsWith("--since=")) {
+                long since = Instant.parse(value).toEpochMilli();
+                filter = filter.and(attempt -> attempt.getTimestamp() >= since);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        Predicate<LoginAttempt> matching = filter;
+        read(Paths.get(args[0]), attempt -> {
+            if (matching.test(attempt)) {
+                System.out.printf("%s %-15s %-39s %s%n", Instant.ofEpochMilli(attempt.getTimestamp()),
+                        attempt.getOutcome(), attempt.getRemoteAddress(), attempt.getUsername());
+            }
+        });
+    }
+
+    public static void read(Path directory, Consumer<LoginAttempt> consumer) throws IOException {
+        for (Path path : segments(directory)) {
+            MappedByteBuffer segment;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (NoSuchFileException e) {
+                // deleted by rotation while listing
+                continue;
+            }
+            LoginAttempt attempt;
+            while ((attempt = LoginAuditFormat.decode(segment)) != null) {
+                consumer.accept(attempt);
+            }
+        }
+    }
+
+    public static List<LoginAttempt> readAll(Path directory) throws IOException {
+        List<LoginAttempt> attempts = new ArrayList<>();
+        read(directory, attempts::add);
+        return attempts;
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(LoginAuditFormat.SEGMENT_PREFIX) && name.endsWith(LoginAuditFormat.SEGMENT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(LoginAuditReader::segmentNumber).thenComparing(Path::getFileName))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    static long segmentNumber(Path segment) {
+        String name = segmentName(segment);
+        int separator = name.indexOf('-');
+        return Long.parseLong(separator == -1 ? name : name.substring(0, separator));
+    }
+
+    // null for a segment named without one
+    static String segmentWriter(Path segment) {
+        String name = segmentName(segment);
+        int separator = name.indexOf('-');
+        return separator == -1 ? null : name.substring(separator + 1);
+    }
+
+    // the file name between prefix and suffix
+    private static String segmentName(Path segment) {
+        String name = segment.getFileName().toString();
+        return name.substring(LoginAuditFormat.SEGMENT_PREFIX.length(), name.length() - LoginAuditFormat.SEGMENT_SUFFIX.length());
+    }
+}
@@ -0,0 +1,98 @@
+package com.hoaxify.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Appends records to memory-mapped segment files of a fixed size. A record that does not fit in the
+ * current segment starts the next one. Segment numbers only grow; a writer starting up, or a second node
+ * sharing the directory, takes the next free number rather than appending to a segment it did not create.
+ *
+ * Each segment name carries the id of the writer that created it, and a writer deletes only its own
+ * oldest segments beyond {@code maxSegments}, so nodes sharing a directory never rotate away each
+ * other's records. A node that restarts under the same id picks up rotating what it wrote before.
+ *
+ * Writes land in the page cache as soon as they are put, so they survive the process dying; only
+ * {@link #force} makes them survive the machine dying. Not thread safe: owned by the drain thread.
+ */
+final class LoginAuditSegmentWriter implements Closeable {
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    private final String writerId;
+
+    private MappedByteBuffer segment;
+
+    LoginAuditSegmentWriter(Path directory, int segmentSize, int maxSegments, String writerId) throws IOException {
+        if (!LoginAuditFormat.isValidWriterId(writerId)) {
+            throw new IllegalArgumentException("Writer id may only contain letters, digits, '.', '_' and '-': " + writerId);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.writerId = writerId;
+        Files.createDirectories(directory);
+    }
+
+    void append(LoginAttempt attempt) throws IOException {
+        byte[] body = LoginAuditFormat.encode(attempt);
+        if (segment == null || segment.remaining() < LoginAuditFormat.recordSize(body)) {
+            rotate();
+        }
+        LoginAuditFormat.put(segment, body);
+    }
+
+    void force() {
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+        segment = null;
+    }
+
+    private void rotate() throws IOException {
+        force();
+        long number = lastSegmentNumber() + 1;
+        while (true) {
+            Path path = directory.resolve(String.format("%s%012d-%s%s", LoginAuditFormat.SEGMENT_PREFIX, number, writerId, LoginAuditFormat.SEGMENT_SUFFIX));
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // the old mapping is released when it is garbage collected; there is no supported unmap
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+                break;
+            } catch (FileAlreadyExistsException e) {
+                number++;
+            }
+        }
+        deleteOldSegments();
+    }
+
+    private long lastSegmentNumber() throws IOException {
+        List<Path> segments = LoginAuditReader.segments(directory);
+        return segments.isEmpty() ? 0 : LoginAuditReader.segmentNumber(segments.get(segments.size() - 1));
+    }
+
+    private void deleteOldSegments() throws IOException {
+        List<Path> segments = LoginAuditReader.segments(directory).stream()
+                .filter(segment -> writerId.equals(LoginAuditReader.segmentWriter(segment)))
+                .collect(Collectors.toList());
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+}
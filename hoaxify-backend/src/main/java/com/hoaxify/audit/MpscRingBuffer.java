@@ -0,0 +1,75 @@
+package com.hoaxify.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded queue for many producers and a single consumer, without locks. Each slot carries a
+ * sequence number: a producer claims a position by CAS on the tail once the slot's sequence says the
+ * consumer has freed it, stores the element, then publishes it by advancing the sequence. The
+ * consumer only reads slots whose sequence says they are published, so it never sees a half-written
+ * slot. A full buffer refuses instead of waiting.
+ */
+final class MpscRingBuffer<E> {
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    // only touched by the consumer thread
+    private long head;
+
+    MpscRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(E element) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence < position) {
+                return false;
+            }
+            if (sequence == position && tail.compareAndSet(position, position + 1)) {
+                break;
+            }
+        }
+        elements.lazySet(index, element);
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    // consumer thread only
+    E poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.lazySet(index, head + mask + 1);
+        head++;
+        return element;
+    }
+
+    // approximate when called off the consumer thread
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
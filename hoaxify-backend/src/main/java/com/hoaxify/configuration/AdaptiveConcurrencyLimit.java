@@ -0,0 +1,100 @@
+package com.hoaxify.configuration;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AIMD concurrency limit driven by observed latency.
+ *
+ * The no-load latency is tracked as the smallest sample seen in the current window of samples. A sample
+ * slower than {@code tolerance} times that baseline shrinks the limit multiplicatively; a fast sample
+ * taken while the limit was at least half used grows it by {@code 1 / limit}, i.e. by about one per
+ * limit's worth of requests.
+ *
+ * Only samples of the guarded work should be fed in: a 401 or 429 answered without doing it would set a
+ * baseline no real request can meet, and every success after it would read as congestion.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private static final int BASELINE_WINDOW = 1000;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile double limit;
+
+    private long baselineNanos = Long.MAX_VALUE;
+
+    private long windowMinNanos = Long.MAX_VALUE;
+
+    private int windowSamples;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // frees the slot without a latency sample, for outcomes that say nothing about the work the limit guards
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public void release(long latencyNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        onSample(latencyNanos, inFlightAtCompletion);
+    }
+
+    private synchronized void onSample(long latencyNanos, int inFlightAtCompletion) {
+        windowMinNanos = Math.min(windowMinNanos, latencyNanos);
+        if (++windowSamples >= BASELINE_WINDOW) {
+            baselineNanos = windowMinNanos;
+            windowMinNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        } else {
+            baselineNanos = Math.min(baselineNanos, latencyNanos);
+        }
+
+        double current = limit;
+        if (latencyNanos > baselineNanos * tolerance) {
+            limit = Math.max(minLimit, current * BACKOFF_RATIO);
+        } else if (inFlightAtCompletion * 2 >= current) {
+            limit = Math.min(maxLimit, current + 1 / current);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
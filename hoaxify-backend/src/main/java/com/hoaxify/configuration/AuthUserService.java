@@ -1,12 +1,17 @@
 package com.hoaxify.configuration;
 
+import com.hoaxify.tracing.Span;
+import com.hoaxify.user.RecentWrites;
 import com.hoaxify.user.User;
 import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UsernameNormalizer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class AuthUserService implements UserDetailsService {
@@ -14,12 +19,29 @@ public class AuthUserService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RecentWrites recentWrites;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final TransactionTemplate readWriteTransaction;
+
+    public AuthUserService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username);
-        if(user == null) {
-            throw new UsernameNotFoundException("User not found");
+        try (Span span = Span.start("AuthUserService.loadUserByUsername")) {
+            // a user who just signed up on this node may not have reached the replica yet
+            TransactionTemplate transaction = recentWrites.contains(username) ? readWriteTransaction : readOnlyTransaction;
+            User user = transaction.execute(status -> userRepository.findByNormalizedUsername(UsernameNormalizer.normalize(username)));
+            if(user == null) {
+                throw new UsernameNotFoundException("User not found");
+            }
+            return user;
         }
-        return user;
     }
 }
@@ -1,5 +1,6 @@
 package com.hoaxify.configuration;
 
+import com.hoaxify.error.ApiErrorTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
@@ -9,9 +10,14 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
+// Writes the 401 body here rather than through sendError, which would dispatch to /error and
+// serialize a fresh ApiError for every failed login.
 public class BasicAuthenticationEntryPoint implements AuthenticationEntryPoint {
+
+    private static final ApiErrorTemplate UNAUTHORIZED = ApiErrorTemplate.of(HttpStatus.UNAUTHORIZED);
+
     @Override
-    public void commence(HttpServletRequest httpServletRequest, HttpServletResponse response, AuthenticationException e) throws IOException, ServletException {
-        response.sendError(HttpStatus.UNAUTHORIZED.value(), HttpStatus.UNAUTHORIZED.getReasonPhrase());
+    public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException e) throws IOException, ServletException {
+        UNAUTHORIZED.write(request, response);
     }
 }
@@ -0,0 +1,39 @@
+package com.hoaxify.configuration;
+
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+
+/**
+ * Answers a path that names no file with the single page app's index, so a reload or a shared link on
+ * a client route still boots the app. Paths with an extension are missing assets and API paths are
+ * missing endpoints; both keep their 404.
+ */
+public class ClientRouteFallbackResolver extends PathResourceResolver {
+
+    private final String index;
+
+    public ClientRouteFallbackResolver(String index) {
+        this.index = index;
+    }
+
+    @Override
+    protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = super.resolveResourceInternal(request, requestPath, locations, chain);
+        if (resource != null || !isClientRoute(requestPath)) {
+            return resource;
+        }
+        return super.resolveResourceInternal(request, index, locations, chain);
+    }
+
+    static boolean isClientRoute(String path) {
+        if (path.startsWith("api/") || path.startsWith("actuator/")) {
+            return false;
+        }
+        return path.indexOf('.', path.lastIndexOf('/') + 1) < 0;
+    }
+}
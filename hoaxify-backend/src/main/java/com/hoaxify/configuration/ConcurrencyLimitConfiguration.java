@@ -0,0 +1,55 @@
+package com.hoaxify.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+public class ConcurrencyLimitConfiguration {
+
+    @Value("${hoaxify.concurrency-limit.initial-limit:20}")
+    int initialLimit;
+
+    @Value("${hoaxify.concurrency-limit.min-limit:2}")
+    int minLimit;
+
+    @Value("${hoaxify.concurrency-limit.max-limit:200}")
+    int maxLimit;
+
+    @Value("${hoaxify.concurrency-limit.tolerance:2.0}")
+    double tolerance;
+
+    // Ahead of the security filter chain so shed requests never reach authentication.
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(new ConcurrencyLimitFilter(concurrencyLimits(meterRegistry)));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    private Map<String, AdaptiveConcurrencyLimit> concurrencyLimits(MeterRegistry meterRegistry) {
+        Map<String, AdaptiveConcurrencyLimit> limits = new LinkedHashMap<>();
+        for (String group : new String[]{ConcurrencyLimitFilter.AUTH, ConcurrencyLimitFilter.SIGNUP, ConcurrencyLimitFilter.LISTING}) {
+            AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance);
+            Gauge.builder("hoaxify.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .tag("group", group)
+                    .register(meterRegistry);
+            Gauge.builder("hoaxify.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .tag("group", group)
+                    .register(meterRegistry);
+            FunctionCounter.builder("hoaxify.concurrency.rejected", limit, AdaptiveConcurrencyLimit::getRejected)
+                    .tag("group", group)
+                    .register(meterRegistry);
+            limits.put(group, limit);
+        }
+        return limits;
+    }
+}
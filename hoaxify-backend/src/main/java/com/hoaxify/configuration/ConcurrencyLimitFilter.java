@@ -0,0 +1,77 @@
+package com.hoaxify.configuration;
+
+import com.hoaxify.error.ApiErrorTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public static final String AUTH = "auth";
+
+    public static final String SIGNUP = "signup";
+
+    public static final String LISTING = "listing";
+
+    private final Map<String, AdaptiveConcurrencyLimit> limits;
+
+    private static final ApiErrorTemplate SERVICE_UNAVAILABLE = ApiErrorTemplate.of(HttpStatus.SERVICE_UNAVAILABLE);
+
+    public ConcurrencyLimitFilter(Map<String, AdaptiveConcurrencyLimit> limits) {
+        this.limits = limits;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String group = groupOf(request);
+        AdaptiveConcurrencyLimit limit = group == null ? null : limits.get(group);
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!limit.tryAcquire()) {
+            SERVICE_UNAVAILABLE.write(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            // rejections and errors return early and would drag the latency baseline down
+            if (completed && HttpStatus.Series.resolve(response.getStatus()) == HttpStatus.Series.SUCCESSFUL) {
+                limit.release(System.nanoTime() - start);
+            } else {
+                limit.release();
+            }
+        }
+    }
+
+    static String groupOf(HttpServletRequest request) {
+        String path = request.getServletPath();
+        String method = request.getMethod();
+        if ("/api/1.0/login".equals(path)) {
+            return AUTH;
+        }
+        if ("/api/1.0/users".equals(path)) {
+            if (HttpMethod.POST.matches(method)) {
+                return SIGNUP;
+            }
+            if (HttpMethod.GET.matches(method)) {
+                return LISTING;
+            }
+        }
+        if ("/api/1.0/users/batch".equals(path)) {
+            return LISTING;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.hoaxify.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty("hoaxify.datasource.replica.url")
+public class DataSourceRoutingConfiguration {
+
+    @Value("${hoaxify.datasource.replica.url}")
+    String replicaUrl;
+
+    @Value("${hoaxify.datasource.replica.username:${spring.datasource.username:sa}}")
+    String replicaUsername;
+
+    @Value("${hoaxify.datasource.replica.password:${spring.datasource.password:}}")
+    String replicaPassword;
+
+    // The lazy proxy defers fetching a connection until the first statement, by which time the
+    // transaction's read-only flag is known and the routing data source can pick a pool.
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaUrl)
+                .username(replicaUsername)
+                .password(replicaPassword)
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
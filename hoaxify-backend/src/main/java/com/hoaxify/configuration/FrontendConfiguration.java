@@ -0,0 +1,62 @@
+package com.hoaxify.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the React production build packaged under {@code classpath:/public/} by the {@code frontend}
+ * Maven profile. Every compressible file ships with .br and .gz siblings written at build time, and
+ * {@link EncodedResourceResolver} picks one by Accept-Encoding, so no static file is compressed per request.
+ *
+ * Files under /static/ carry a content hash in their name and are cached for a year as immutable;
+ * everything else, index.html above all, is revalidated on every use so a deploy is picked up at once.
+ */
+@Configuration
+public class FrontendConfiguration implements WebMvcConfigurer {
+
+    @Value("${hoaxify.frontend.location:classpath:/public/}")
+    String location;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/static/**")
+                .addResourceLocations(location + "static/")
+                .setCacheControl(new ImmutableCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic()))
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+        registry.addResourceHandler("/**")
+                .addResourceLocations(location)
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new ClientRouteFallbackResolver("index.html"));
+    }
+
+    // the resource handler never resolves an empty path
+    @Override
+    public void addViewControllers(ViewControllerRegistry registry) {
+        registry.addViewController("/").setViewName("forward:/index.html");
+    }
+
+    // CacheControl has no immutable directive before Spring 6
+    private static class ImmutableCacheControl extends CacheControl {
+
+        private final String headerValue;
+
+        ImmutableCacheControl(CacheControl cacheControl) {
+            this.headerValue = cacheControl.getHeaderValue() + ", immutable";
+        }
+
+        @Override
+        public String getHeaderValue() {
+            return headerValue;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.hoaxify.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+@Configuration
+public class IdempotencyConfiguration {
+
+    @Value("${hoaxify.idempotency.max-keys:10000}")
+    long maxKeys;
+
+    @Value("${hoaxify.idempotency.ttl:1h}")
+    Duration ttl;
+
+    @Value("${hoaxify.idempotency.wait-timeout:2s}")
+    Duration waitTimeout;
+
+    // Ahead of the concurrency limit, so a replay is served even while signups are being shed.
+    @Bean
+    public FilterRegistrationBean<IdempotencyKeyFilter> idempotencyKeyFilter(MeterRegistry meterRegistry) {
+        IdempotencyKeyFilter filter = new IdempotencyKeyFilter(Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build(), waitTimeout.toNanos(), meterRegistry);
+        FilterRegistrationBean<IdempotencyKeyFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -0,0 +1,280 @@
+package com.hoaxify.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.hoaxify.error.ApiErrorTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes POST /api/1.0/users safe to retry: a request carrying an {@code Idempotency-Key} runs once,
+ * and every later request with the same key and the same body gets the first response replayed, with
+ * {@code Idempotent-Replayed: true}. A duplicate arriving while the first is still running waits up to
+ * {@code wait-timeout} for its result instead of running validation and BCrypt a second time, and is
+ * answered 409 with {@code Retry-After} if it is still running then. The wait is kept short because this
+ * filter runs ahead of the concurrency limit, so a retry storm must not hold every container thread.
+ * The same key with a different body is refused with 422.
+ *
+ * Only 2xx and 4xx responses are kept; after a 5xx, or if the first request dies, the key is free
+ * again and the next retry runs for real. Keys live in this node's memory for {@code ttl}, bounded by
+ * {@code max-keys}, so a retry landing on another node runs again and is caught by validation.
+ */
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    private static final List<String> REPLAYED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.LOCATION,
+            HttpHeaders.RETRY_AFTER, "Preference-Applied");
+
+    private static final ApiErrorTemplate BAD_REQUEST = ApiErrorTemplate.of(HttpStatus.BAD_REQUEST);
+
+    private static final ApiErrorTemplate PAYLOAD_TOO_LARGE = ApiErrorTemplate.of(HttpStatus.PAYLOAD_TOO_LARGE);
+
+    private static final ApiErrorTemplate UNPROCESSABLE_ENTITY = ApiErrorTemplate.of(HttpStatus.UNPROCESSABLE_ENTITY);
+
+    private static final ApiErrorTemplate CONFLICT = ApiErrorTemplate.of(HttpStatus.CONFLICT);
+
+    private final Cache<String, Execution> executions;
+
+    private final long waitTimeoutNanos;
+
+    private final Counter executed;
+
+    private final Counter replayed;
+
+    private final Counter mismatched;
+
+    public IdempotencyKeyFilter(Cache<String, Execution> executions, long waitTimeoutNanos, MeterRegistry meterRegistry) {
+        this.executions = executions;
+        this.waitTimeoutNanos = waitTimeoutNanos;
+        this.executed = Counter.builder("hoaxify.idempotency.requests").tag("result", "executed").register(meterRegistry);
+        this.replayed = Counter.builder("hoaxify.idempotency.requests").tag("result", "replayed").register(meterRegistry);
+        this.mismatched = Counter.builder("hoaxify.idempotency.requests").tag("result", "mismatched").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !"/api/1.0/users".equals(request.getServletPath())
+                || request.getHeader(IDEMPOTENCY_KEY) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY);
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            BAD_REQUEST.write(request, response);
+            return;
+        }
+        // a chunked body has no Content-Length, so the limit is also enforced while reading
+        byte[] body = request.getContentLengthLong() > MAX_BODY_BYTES ? null : readAtMost(request.getInputStream(), MAX_BODY_BYTES);
+        if (body == null) {
+            PAYLOAD_TOO_LARGE.write(request, response);
+            return;
+        }
+        byte[] fingerprint = sha256(body);
+        Execution mine = new Execution(fingerprint, new CompletableFuture<>());
+        // a failed first attempt frees the key, so a waiting duplicate gets one more go at running itself
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Execution existing = executions.asMap().putIfAbsent(key, mine);
+            if (existing == null) {
+                execute(key, mine, new BufferedBodyRequest(request, body), response, filterChain);
+                return;
+            }
+            if (!Arrays.equals(existing.getFingerprint(), fingerprint)) {
+                mismatched.increment();
+                UNPROCESSABLE_ENTITY.write(request, response);
+                return;
+            }
+            StoredResponse stored;
+            try {
+                stored = await(existing);
+            } catch (TimeoutException e) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                CONFLICT.write(request, response);
+                return;
+            }
+            if (stored != null) {
+                replayed.increment();
+                stored.replay(response);
+                return;
+            }
+        }
+        CONFLICT.write(request, response);
+    }
+
+    private void execute(String key, Execution execution, HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        executed.increment();
+        ContentCachingResponseWrapper caching = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        try {
+            filterChain.doFilter(request, caching);
+            if (caching.getStatus() < 500) {
+                stored = StoredResponse.of(caching);
+            }
+        } finally {
+            if (stored == null) {
+                executions.asMap().remove(key, execution);
+            }
+            execution.getResult().complete(stored);
+            caching.copyBodyToResponse();
+        }
+    }
+
+    // null when the first request's response was not kept; TimeoutException while it is still running
+    private StoredResponse await(Execution execution) throws IOException, TimeoutException {
+        try {
+            return execution.getResult().get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for a request with the same Idempotency-Key", e);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    // null once the stream turns out longer than limit
+    private static byte[] readAtMost(InputStream in, int limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > limit) {
+                return null;
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Value
+    public static class Execution {
+
+        byte[] fingerprint;
+
+        // completes with null when the response is not kept
+        CompletableFuture<StoredResponse> result;
+    }
+
+    @Value
+    static class StoredResponse {
+
+        int status;
+
+        List<Map.Entry<String, String>> headers;
+
+        byte[] body;
+
+        static StoredResponse of(ContentCachingResponseWrapper response) {
+            List<Map.Entry<String, String>> headers = new ArrayList<>();
+            for (String name : REPLAYED_HEADERS) {
+                for (String value : response.getHeaders(name)) {
+                    headers.add(Map.entry(name, value));
+                }
+            }
+            if (response.getContentType() != null && response.getHeader(HttpHeaders.CONTENT_TYPE) == null) {
+                headers.add(Map.entry(HttpHeaders.CONTENT_TYPE, response.getContentType()));
+            }
+            return new StoredResponse(response.getStatus(), headers, response.getContentAsByteArray());
+        }
+
+        void replay(HttpServletResponse response) throws IOException {
+            response.setStatus(status);
+            for (Map.Entry<String, String> header : headers) {
+                response.addHeader(header.getKey(), header.getValue());
+            }
+            response.setHeader(IDEMPOTENT_REPLAYED, "true");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    static class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // the whole body is already in memory, so it is available and read in one go
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+    }
+}
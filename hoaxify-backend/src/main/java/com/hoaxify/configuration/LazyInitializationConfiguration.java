@@ -0,0 +1,21 @@
+package com.hoaxify.configuration;
+
+import com.hoaxify.hoax.HoaxWriteBehind;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+// With spring.main.lazy-initialization (the fast-startup profile) these stay eager: deferring them
+// only moves the connection pool and Hibernate bootstrap onto the first request, and the write-behind
+// thread should run from startup. Classes marked @Lazy(false) are eager already.
+@Configuration
+public class LazyInitializationConfiguration {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class, HoaxWriteBehind.class);
+    }
+}
@@ -0,0 +1,78 @@
+package com.hoaxify.configuration;
+
+import com.hoaxify.error.ApiErrorTemplate;
+import com.hoaxify.user.UsernameNormalizer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Runs ahead of BasicAuthenticationFilter: every request carrying Basic credentials costs a
+// BCrypt hash, so it is charged against its client address and claimed username first. The client
+// sends Basic credentials on every call once logged in, so the token is given back when they check
+// out; only failed attempts use up the limit. Usernames are keyed in their normalized form, since
+// "Alice" and "ALICE" sign in to the same account.
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String BASIC_PREFIX = "Basic ";
+
+    private static final ApiErrorTemplate TOO_MANY_REQUESTS = ApiErrorTemplate.of(HttpStatus.TOO_MANY_REQUESTS);
+
+    private final TokenBucketTable ipBuckets;
+
+    private final TokenBucketTable usernameBuckets;
+
+    public LoginRateLimitFilter(TokenBucketTable ipBuckets, TokenBucketTable usernameBuckets) {
+        this.ipBuckets = ipBuckets;
+        this.usernameBuckets = usernameBuckets;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+            String username = extractUsername(header);
+            if (!ipBuckets.tryAcquire(request.getRemoteAddr())
+                    || (username != null && !usernameBuckets.tryAcquire(username))) {
+                TOO_MANY_REQUESTS.write(request, response);
+                return;
+            }
+            filterChain.doFilter(request, response);
+            // still set: SecurityContextPersistenceFilter clears the context only once this filter returns
+            if (isAuthenticated(SecurityContextHolder.getContext().getAuthentication())) {
+                ipBuckets.refund(request.getRemoteAddr());
+                if (username != null) {
+                    usernameBuckets.refund(username);
+                }
+            }
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static boolean isAuthenticated(Authentication authentication) {
+        return authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken);
+    }
+
+    private String extractUsername(String header) {
+        try {
+            byte[] decoded = Base64.getDecoder().decode(header.substring(BASIC_PREFIX.length()).trim());
+            String credentials = new String(decoded, StandardCharsets.UTF_8);
+            int separator = credentials.indexOf(':');
+            return separator == -1 ? null : UsernameNormalizer.normalize(credentials.substring(0, separator));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
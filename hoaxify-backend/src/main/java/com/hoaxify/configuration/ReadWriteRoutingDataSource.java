@@ -0,0 +1,24 @@
+package com.hoaxify.configuration;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private static final String REPLICA = "replica";
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? REPLICA : PRIMARY;
+    }
+}
@@ -0,0 +1,64 @@
+package com.hoaxify.configuration;
+
+import com.hoaxify.jfr.AuthAttemptEvent;
+import com.hoaxify.jfr.UsernameHash;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Emits an {@link AuthAttemptEvent} for every authentication while a flight recording with the event
+ * enabled is running; otherwise it is a plain {@link DaoAuthenticationProvider}. Unknown usernames
+ * surface as bad credentials, and are told apart by the password check never having run.
+ */
+public class RecordingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    // the password check runs inside authenticate, on the same thread
+    private static final ThreadLocal<AuthAttemptEvent> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        AuthAttemptEvent event = new AuthAttemptEvent();
+        if (!event.isEnabled()) {
+            return super.authenticate(authentication);
+        }
+        event.begin();
+        CURRENT.set(event);
+        try {
+            Authentication result = super.authenticate(authentication);
+            event.outcome = "SUCCESS";
+            return result;
+        } catch (BadCredentialsException e) {
+            event.outcome = event.passwordCheckDuration > 0 ? "BAD_CREDENTIALS" : "UNKNOWN_USER";
+            throw e;
+        } catch (AuthenticationException e) {
+            event.outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            CURRENT.remove();
+            event.end();
+            if (event.shouldCommit()) {
+                event.usernameHash = UsernameHash.of(authentication.getName());
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+        AuthAttemptEvent event = CURRENT.get();
+        if (event == null) {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+        } finally {
+            event.passwordCheckDuration = System.nanoTime() - start;
+        }
+    }
+}
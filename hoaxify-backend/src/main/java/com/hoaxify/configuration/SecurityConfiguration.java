@@ -1,8 +1,13 @@
 package com.hoaxify.configuration;
 
+import com.hoaxify.error.ApiErrorTemplate;
+import com.hoaxify.tracing.SecurityFilterChainSpan;
+import com.hoaxify.tracing.TracedPasswordEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -10,22 +15,50 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.access.channel.ChannelProcessingFilter;
+import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.time.Duration;
 
 @EnableWebSecurity
 public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
+    private static final ApiErrorTemplate FORBIDDEN = ApiErrorTemplate.of(HttpStatus.FORBIDDEN);
+
     @Autowired
     AuthUserService authUserService;
 
+    @Value("${hoaxify.login-rate-limit.table-size:65536}")
+    int rateLimitTableSize;
+
+    @Value("${hoaxify.login-rate-limit.ip.capacity:50}")
+    int ipCapacity;
+
+    @Value("${hoaxify.login-rate-limit.ip.refill-period:100ms}")
+    Duration ipRefillPeriod;
+
+    @Value("${hoaxify.login-rate-limit.username.capacity:20}")
+    int usernameCapacity;
+
+    @Value("${hoaxify.login-rate-limit.username.refill-period:3s}")
+    Duration usernameRefillPeriod;
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http.csrf().disable();
 
         http.httpBasic().authenticationEntryPoint(new BasicAuthenticationEntryPoint());
+        http.exceptionHandling().accessDeniedHandler((request, response, e) -> FORBIDDEN.write(request, response));
+
+        http.addFilterBefore(loginRateLimitFilter(), BasicAuthenticationFilter.class);
+        http.addFilterBefore(new SecurityFilterChainSpan.Open(), ChannelProcessingFilter.class);
+        http.addFilterAfter(new SecurityFilterChainSpan.Close(), FilterSecurityInterceptor.class);
 
         http.authorizeRequests()
                 .antMatchers(HttpMethod.POST, "/api/1.0/login").authenticated()
+                .antMatchers(HttpMethod.POST, "/api/1.0/hoaxes").authenticated()
+                .antMatchers(HttpMethod.PUT, "/api/1.0/users/{id:[0-9]+}").authenticated()
                 .and()
                 .authorizeRequests().anyRequest().permitAll();
 
@@ -34,12 +67,21 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(authUserService).passwordEncoder(passwordEncoder());
+        RecordingAuthenticationProvider authenticationProvider = new RecordingAuthenticationProvider();
+        authenticationProvider.setUserDetailsService(authUserService);
+        authenticationProvider.setPasswordEncoder(passwordEncoder());
+        auth.authenticationProvider(authenticationProvider);
     }
 
 
+    private LoginRateLimitFilter loginRateLimitFilter() {
+        return new LoginRateLimitFilter(
+                new TokenBucketTable(rateLimitTableSize, ipCapacity, ipRefillPeriod),
+                new TokenBucketTable(rateLimitTableSize, usernameCapacity, usernameRefillPeriod));
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TracedPasswordEncoder(new BCryptPasswordEncoder());
     }
 }
@@ -0,0 +1,79 @@
+package com.hoaxify.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+@Slf4j
+@Component
+public class StartupReport {
+
+    private static final String BEAN_INSTANTIATION_STEP = "spring.beans.instantiate";
+
+    private final ApplicationStartup applicationStartup;
+
+    @Value("${hoaxify.startup.report.enabled:false}")
+    private boolean enabled;
+
+    @Value("${hoaxify.startup.report.top:10}")
+    private int top;
+
+    @Value("${hoaxify.startup.exit-on-ready:false}")
+    private boolean exitOnReady;
+
+    public StartupReport(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (applicationStartup instanceof BufferingApplicationStartup) {
+            StartupTimeline timeline = ((BufferingApplicationStartup) applicationStartup).drainBufferedTimeline();
+            if (enabled) {
+                log(timeline);
+            }
+        }
+        log.info("Application ready {} ms after JVM start", ManagementFactory.getRuntimeMXBean().getUptime());
+
+        // used by the cds profile: a training run only needs to reach the ready state
+        if (exitOnReady) {
+            ApplicationContext context = event.getApplicationContext();
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private void log(StartupTimeline timeline) {
+        List<StartupTimeline.TimelineEvent> slowest = timeline.getEvents().stream()
+                .filter(e -> BEAN_INSTANTIATION_STEP.equals(e.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(top)
+                .collect(Collectors.toList());
+
+        log.info("Slowest {} of {} recorded startup steps (durations include dependencies):", slowest.size(), timeline.getEvents().size());
+        for (StartupTimeline.TimelineEvent e : slowest) {
+            log.info("  {} ms  {}", e.getDuration().toMillis(), beanName(e.getStartupStep()));
+        }
+    }
+
+    private String beanName(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .filter(tag -> "beanName".equals(tag.getKey()))
+                .map(StartupStep.Tag::getValue)
+                .findFirst()
+                .orElse(step.getName());
+    }
+}
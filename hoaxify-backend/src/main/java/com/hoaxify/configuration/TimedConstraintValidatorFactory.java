@@ -0,0 +1,91 @@
+package com.hoaxify.configuration;
+
+import com.hoaxify.tracing.Span;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.validator.constraintvalidation.HibernateConstraintValidator;
+import org.hibernate.validator.constraintvalidation.HibernateConstraintValidatorInitializationContext;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.ConstraintValidatorFactory;
+import javax.validation.metadata.ConstraintDescriptor;
+import java.lang.annotation.Annotation;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps every constraint validator so each {@code isValid} call is recorded under
+ * {@code hoaxify.validation.constraint}, tagged with the constraint annotation, and traced as a
+ * {@code validate @Constraint} span. Validators are
+ * created and initialized once per constraint and cached by Hibernate Validator, so the timer
+ * lookup happens at initialization and a validation call only pays for the clock reads.
+ */
+public class TimedConstraintValidatorFactory implements ConstraintValidatorFactory {
+
+    private final ConstraintValidatorFactory delegate;
+
+    // resolved on first validation, so building the validator does not pull the registry in early
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public TimedConstraintValidatorFactory(ConstraintValidatorFactory delegate, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <T extends ConstraintValidator<?, ?>> T getInstance(Class<T> key) {
+        @SuppressWarnings("unchecked")
+        T timed = (T) new TimedConstraintValidator<>(delegate.getInstance(key));
+        return timed;
+    }
+
+    @Override
+    public void releaseInstance(ConstraintValidator<?, ?> instance) {
+        if (instance instanceof TimedConstraintValidator) {
+            delegate.releaseInstance(((TimedConstraintValidator<?, ?>) instance).delegate);
+        }
+    }
+
+    private class TimedConstraintValidator<A extends Annotation, T> implements HibernateConstraintValidator<A, T> {
+
+        private final ConstraintValidator<A, T> delegate;
+
+        private Timer timer;
+
+        private String spanName;
+
+        @SuppressWarnings("unchecked")
+        TimedConstraintValidator(ConstraintValidator<?, ?> delegate) {
+            this.delegate = (ConstraintValidator<A, T>) delegate;
+        }
+
+        @Override
+        public void initialize(ConstraintDescriptor<A> constraintDescriptor, HibernateConstraintValidatorInitializationContext initializationContext) {
+            String constraint = constraintDescriptor.getAnnotation().annotationType().getSimpleName();
+            timer = Timer.builder("hoaxify.validation.constraint")
+                    .description("Time spent evaluating a bean validation constraint")
+                    .tag("constraint", constraint)
+                    .register(meterRegistry.getObject());
+            spanName = "validate @" + constraint;
+            if (delegate instanceof HibernateConstraintValidator) {
+                ((HibernateConstraintValidator<A, T>) delegate).initialize(constraintDescriptor, initializationContext);
+            }
+        }
+
+        @Override
+        public void initialize(A constraintAnnotation) {
+            delegate.initialize(constraintAnnotation);
+        }
+
+        @Override
+        public boolean isValid(T value, ConstraintValidatorContext context) {
+            long start = System.nanoTime();
+            try (Span span = Span.start(spanName)) {
+                return delegate.isValid(value, context);
+            } finally {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
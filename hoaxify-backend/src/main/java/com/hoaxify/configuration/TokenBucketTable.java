@@ -0,0 +1,147 @@
+package com.hoaxify.configuration;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-size table of token buckets keyed by string, safe for concurrent use.
+ *
+ * Each bucket is a single "theoretical arrival time" (GCRA), so taking a token is one CAS. A key is
+ * looked up in a short probe window of its home slot; when the key is absent and the window is full,
+ * the bucket closest to being refilled is replaced, so memory stays bounded. Buckets that have fully
+ * refilled carry no state and are always the first to go. Only that replacement takes a lock, striped
+ * by home slot, so a key never ends up with two buckets.
+ */
+public class TokenBucketTable {
+
+    private static final int PROBE_WINDOW = 8;
+
+    private static final int MAX_EVICTION_LOCKS = 64;
+
+    private final AtomicReferenceArray<Bucket> slots;
+
+    private final int mask;
+
+    private final long refillNanos;
+
+    private final long burstToleranceNanos;
+
+    private final LongSupplier clock;
+
+    private final Object[] evictionLocks;
+
+    public TokenBucketTable(int size, int capacity, Duration refillPeriod) {
+        this(size, capacity, refillPeriod, System::nanoTime);
+    }
+
+    TokenBucketTable(int size, int capacity, Duration refillPeriod, LongSupplier clock) {
+        int tableSize = Integer.highestOneBit(Math.max(size, PROBE_WINDOW) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(tableSize);
+        this.mask = tableSize - 1;
+        this.refillNanos = refillPeriod.toNanos();
+        this.burstToleranceNanos = (capacity - 1) * refillNanos;
+        this.clock = clock;
+        this.evictionLocks = new Object[Math.min(tableSize, MAX_EVICTION_LOCKS)];
+        for (int i = 0; i < evictionLocks.length; i++) {
+            evictionLocks[i] = new Object();
+        }
+    }
+
+    public boolean tryAcquire(String key) {
+        long now = clock.getAsLong();
+        AtomicLong arrival = bucketFor(key, now).theoreticalArrival;
+        while (true) {
+            long current = arrival.get();
+            long start = Math.max(current, now);
+            if (start - now > burstToleranceNanos) {
+                return false;
+            }
+            if (arrival.compareAndSet(current, start + refillNanos)) {
+                return true;
+            }
+        }
+    }
+
+    // gives back a token taken by tryAcquire; a bucket never holds more than its capacity
+    public void refund(String key) {
+        long now = clock.getAsLong();
+        AtomicLong arrival = bucketFor(key, now).theoreticalArrival;
+        while (true) {
+            long current = arrival.get();
+            long refunded = Math.max(current - refillNanos, now);
+            if (refunded >= current || arrival.compareAndSet(current, refunded)) {
+                return;
+            }
+        }
+    }
+
+    private Bucket bucketFor(String key, long now) {
+        int home = spread(key.hashCode());
+        Bucket bucket = lookUp(key, home, now);
+        if (bucket != null) {
+            return bucket;
+        }
+        // two threads missing the same key would otherwise each evict a different victim and install a
+        // bucket apiece; with the window re-scanned under the lock, the second one finds the first's bucket
+        synchronized (evictionLocks[home & (evictionLocks.length - 1)]) {
+            while (true) {
+                bucket = lookUp(key, home, now);
+                if (bucket != null) {
+                    return bucket;
+                }
+                int victimIndex = home & mask;
+                Bucket victim = slots.get(victimIndex);
+                for (int i = 1; i < PROBE_WINDOW; i++) {
+                    int index = (home + i) & mask;
+                    Bucket candidate = slots.get(index);
+                    if (candidate.theoreticalArrival.get() < victim.theoreticalArrival.get()) {
+                        victimIndex = index;
+                        victim = candidate;
+                    }
+                }
+                Bucket created = new Bucket(key, now);
+                if (slots.compareAndSet(victimIndex, victim, created)) {
+                    return created;
+                }
+            }
+        }
+    }
+
+    // the key's bucket, or a new one in the first free slot of the window; null when the window is full.
+    // Slots are never emptied again, so two threads creating the same key race for the same free slot.
+    private Bucket lookUp(String key, int home, long now) {
+        for (int i = 0; i < PROBE_WINDOW; i++) {
+            int index = (home + i) & mask;
+            Bucket bucket = slots.get(index);
+            if (bucket == null) {
+                Bucket created = new Bucket(key, now);
+                if (slots.compareAndSet(index, null, created)) {
+                    return created;
+                }
+                bucket = slots.get(index);
+            }
+            if (bucket.key.equals(key)) {
+                return bucket;
+            }
+        }
+        return null;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Bucket {
+
+        private final String key;
+
+        private final AtomicLong theoreticalArrival;
+
+        private Bucket(String key, long now) {
+            this.key = key;
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+    }
+}
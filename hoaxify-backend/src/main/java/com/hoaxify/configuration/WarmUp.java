@@ -0,0 +1,88 @@
+package com.hoaxify.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hoaxify.user.User;
+import com.hoaxify.user.UserService;
+import com.hoaxify.user.vm.UserVM;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.validation.Validator;
+import java.time.Duration;
+
+// Application runners complete before the readiness state flips to ACCEPTING_TRAFFIC,
+// so /actuator/health/readiness stays down until the hot paths have been compiled.
+@Slf4j
+@Component
+@Profile("!test")
+public class WarmUp implements ApplicationRunner {
+
+    private static final String PASSWORD = "P4ssword";
+
+    // a single BCrypt match costs as much as hundreds of passes over the other paths
+    private static final int PASSWORD_MATCH_INTERVAL = 100;
+
+    private final UserService userService;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${hoaxify.warmup.duration:0s}")
+    private Duration duration;
+
+    public WarmUp(UserService userService, PasswordEncoder passwordEncoder, Validator validator, ObjectMapper objectMapper) {
+        this.userService = userService;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (duration.isZero() || duration.isNegative()) {
+            return;
+        }
+        User user = syntheticUser();
+        String hash = passwordEncoder.encode(PASSWORD);
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        int iterations = 0;
+        while (System.nanoTime() < deadline) {
+            exercise(user, hash, iterations);
+            iterations++;
+        }
+        log.info("Warm-up finished after {} iterations in {}", iterations, duration);
+    }
+
+    private void exercise(User user, String hash, int iteration) throws Exception {
+        objectMapper.writeValueAsBytes(userService.getUsers(null, PageRequest.of(0, 10)));
+        objectMapper.writeValueAsBytes(userService.getUsers(user, PageRequest.of(0, 10)));
+        objectMapper.writeValueAsBytes(new UserVM(user));
+
+        user.setUsername("warmup-" + iteration);
+        validator.validate(user);
+
+        if (iteration % PASSWORD_MATCH_INTERVAL == 0) {
+            passwordEncoder.matches(PASSWORD, hash);
+        }
+    }
+
+    private User syntheticUser() {
+        User user = new User();
+        user.setId(0);
+        user.setUsername("warmup");
+        user.setDisplayName("warmup");
+        user.setPassword(PASSWORD);
+        user.setImage("profile.png");
+        return user;
+    }
+}
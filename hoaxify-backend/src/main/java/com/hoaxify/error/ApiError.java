@@ -2,6 +2,7 @@ package com.hoaxify.error;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.hoaxify.tracing.Span;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -17,6 +18,8 @@ public class ApiError {
     private int status;
     private String message;
     private String url;
+    // matches the request to its spans at /actuator/traces/{traceId}
+    private String traceId = Span.currentTraceId();
     private Map<String, String> validationErrors;
 
 
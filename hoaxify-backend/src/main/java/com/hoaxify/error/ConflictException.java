@@ -0,0 +1,14 @@
+package com.hoaxify.error;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 2961164187402945537L;
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,6 @@
 package com.hoaxify.error;
 
+import com.hoaxify.tracing.Tracer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.web.servlet.error.BasicErrorController;
 import org.springframework.boot.web.error.ErrorAttributeOptions;
@@ -26,6 +27,9 @@ public class ErrorHandler implements ErrorController {
         String url = (String) attributes.get("path");
         int status = (Integer) attributes.get("status");
 
-        return new ApiError(status, message, url);
+        ApiError apiError = new ApiError(status, message, url);
+        // the error dispatch runs after the request's trace has ended
+        apiError.setTraceId((String) webRequest.getAttribute(Tracer.TRACE_ID_ATTRIBUTE, WebRequest.SCOPE_REQUEST));
+        return apiError;
     }
 }
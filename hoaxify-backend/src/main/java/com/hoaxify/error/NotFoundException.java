@@ -0,0 +1,14 @@
+package com.hoaxify.error;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class NotFoundException extends RuntimeException {
+
+    private static final long serialVersionUID = -4512388512305719032L;
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,42 @@
+package com.hoaxify.hoax;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hoaxify.user.User;
+import lombok.Data;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+@Data
+@Entity
+// the feed walks ids newest first; not every database can scan the primary key backwards
+@Table(indexes = @Index(name = "hoax_id_desc", columnList = "id DESC"))
+public class Hoax {
+
+    // sequence ids reserved in blocks keep write-behind flushes in JDBC batches, see User
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hoax_seq")
+    @SequenceGenerator(name = "hoax_seq", sequenceName = "hoax_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Size(min = 10, max = 5000)
+    @Column(length = 5000)
+    private String content;
+
+    private long timestamp;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    private User user;
+}
@@ -0,0 +1,47 @@
+package com.hoaxify.hoax;
+
+import com.hoaxify.error.ApiError;
+import com.hoaxify.hoax.vm.HoaxVM;
+import com.hoaxify.shared.CurrentUser;
+import com.hoaxify.shared.GenericResponse;
+import com.hoaxify.user.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/1.0")
+public class HoaxController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private HoaxService hoaxService;
+
+    // 202: the hoax is queued in memory and written with the next batch, see HoaxWriteBehind
+    @PostMapping("/hoaxes")
+    ResponseEntity<Object> createHoax(@Valid @RequestBody Hoax hoax, @CurrentUser User user, HttpServletRequest request) {
+        if (!hoaxService.submit(hoax, user)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ApiError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many hoaxes waiting to be saved", request.getServletPath()));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new GenericResponse("Hoax accepted"));
+    }
+
+    @GetMapping("/hoaxes")
+    List<HoaxVM> getFeed(@RequestParam(required = false) Long before, @RequestParam(defaultValue = "10") int size) {
+        return hoaxService.getFeed(before, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+}
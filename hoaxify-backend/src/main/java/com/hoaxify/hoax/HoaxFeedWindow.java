@@ -0,0 +1,298 @@
+package com.hoaxify.hoax;
+
+import com.hoaxify.hoax.vm.HoaxVM;
+import com.hoaxify.user.User;
+import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UsersChangedEvent;
+import com.hoaxify.user.vm.UserVM;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * The newest {@code window-size} hoaxes, kept in a ring so the first pages of the feed need no query.
+ * It is loaded once the application is ready and then appended to by {@link HoaxWriteBehind} after each
+ * committed batch. Until it is loaded, or for a page reaching past its oldest entry, callers get
+ * {@code null} and go to the database.
+ *
+ * Only hoaxes saved on this node are appended, and ids are reserved in blocks, so another node's posts
+ * can land anywhere in the window. It is therefore only trusted for {@code max-age} after a load; past
+ * that, pages are refused until {@link #refreshIfStale()} has reloaded it. Authors are copied into the
+ * entries, so a {@link UsersChangedEvent} naming one of them reloads those users in place.
+ */
+@Slf4j
+@Component
+public class HoaxFeedWindow {
+
+    private final HoaxRepository hoaxRepository;
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final int windowSize;
+
+    private HoaxVM[] ring;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private final long maxAgeNanos;
+
+    private final LongSupplier clock;
+
+    // index of the newest entry
+    private int head = -1;
+
+    private int size;
+
+    private boolean loaded;
+
+    private long loadedAt;
+
+    // true while the window holds every hoax there is, so a short page is still a complete answer
+    private boolean complete;
+
+    @Autowired
+    public HoaxFeedWindow(HoaxRepository hoaxRepository, UserRepository userRepository, PlatformTransactionManager transactionManager,
+                          @Value("${hoaxify.hoax-feed.window-size:1000}") int windowSize,
+                          @Value("${hoaxify.hoax-feed.max-age:1s}") Duration maxAge) {
+        this(hoaxRepository, userRepository, transactionManager, windowSize, maxAge, System::nanoTime);
+    }
+
+    HoaxFeedWindow(HoaxRepository hoaxRepository, UserRepository userRepository, PlatformTransactionManager transactionManager,
+                   int windowSize, Duration maxAge, LongSupplier clock) {
+        this.hoaxRepository = hoaxRepository;
+        this.userRepository = userRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.windowSize = windowSize;
+        this.ring = new HoaxVM[windowSize];
+        this.maxAgeNanos = maxAge.toNanos();
+        this.clock = clock;
+    }
+
+    // a window that fails to load only costs the feed its fast path, so it must not fail startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Could not load the hoax feed window, the feed is served from the database", e);
+        }
+    }
+
+    // the query and the new ring are built without the lock, so readers and the write-behind thread only
+    // wait for the swap
+    public void rebuild() {
+        long newestBefore;
+        lock.readLock().lock();
+        try {
+            newestBefore = size == 0 ? Long.MIN_VALUE : ring[head].getId();
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Hoax> newest = readOnlyTransactionTemplate.execute(status -> hoaxRepository.findFeedBefore(Long.MAX_VALUE, PageRequest.of(0, windowSize)));
+        HoaxVM[] rebuilt = new HoaxVM[windowSize];
+        for (int i = 0; i < newest.size(); i++) {
+            rebuilt[newest.size() - 1 - i] = new HoaxVM(newest.get(i));
+        }
+        long newestId = Math.max(newestBefore, newest.isEmpty() ? Long.MIN_VALUE : newest.get(0).getId());
+        lock.writeLock().lock();
+        try {
+            // hoaxes appended while the query ran may have committed after its snapshot; anything older than
+            // the window's newest entry before the query is left to the query, so deleted rows drop out
+            List<HoaxVM> appended = new ArrayList<>();
+            for (int i = 0; i < size && get(i).getId() > newestId; i++) {
+                appended.add(get(i));
+            }
+            ring = rebuilt;
+            head = newest.size() - 1;
+            size = newest.size();
+            complete = newest.size() < windowSize;
+            for (int i = appended.size() - 1; i >= 0; i--) {
+                add(appended.get(i));
+            }
+            loaded = true;
+            loadedAt = clock.getAsLong();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads the window if it is past {@code max-age}; {@code false} when it is fresh, another caller is
+     * already reloading it, or the reload failed.
+     */
+    public boolean refreshIfStale() {
+        lock.readLock().lock();
+        try {
+            if (loaded && !isStale()) {
+                return false;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!refreshing.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            rebuild();
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh the hoax feed window, the feed is served from the database", e);
+            return false;
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    @EventListener
+    public void onHoaxesSaved(HoaxesSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            for (Hoax hoax : event.getHoaxes()) {
+                if (size == 0 || hoax.getId() > ring[head].getId()) {
+                    add(new HoaxVM(hoax));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onUsersChanged(UsersChangedEvent event) {
+        Set<Integer> authors = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                int authorId = (int) get(i).getUser().getId();
+                if (event.getUserIds().contains(authorId)) {
+                    authors.add(authorId);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (authors.isEmpty()) {
+            return;
+        }
+        Map<Long, UserVM> users = new HashMap<>();
+        try {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                for (User user : userRepository.findByIdIn(authors)) {
+                    users.put((long) user.getId(), new UserVM(user));
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not reload changed authors, the hoax feed is served from the database until the next load", e);
+            invalidate();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            // entries are replaced rather than updated, pages already handed out keep their copies
+            for (int i = 0; i < size; i++) {
+                int index = Math.floorMod(head - i, ring.length);
+                UserVM user = users.get(ring[index].getUser().getId());
+                if (user != null) {
+                    ring[index] = new HoaxVM(ring[index], user);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Newest first, strictly older than {@code before} when given; {@code null} when the window cannot
+     * answer the whole page.
+     */
+    public List<HoaxVM> page(Long before, int pageSize) {
+        lock.readLock().lock();
+        try {
+            if (!loaded || isStale()) {
+                return null;
+            }
+            int from = before == null ? 0 : firstOlderThan(before);
+            if (from + pageSize > size && !complete) {
+                return null;
+            }
+            int to = Math.min(from + pageSize, size);
+            List<HoaxVM> page = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                page.add(get(i));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isStale() {
+        return clock.getAsLong() - loadedAt > maxAgeNanos;
+    }
+
+    private void add(HoaxVM hoax) {
+        head = (head + 1) % ring.length;
+        ring[head] = hoax;
+        if (size < ring.length) {
+            size++;
+        } else {
+            complete = false;
+        }
+    }
+
+    // position 0 is the newest
+    private HoaxVM get(int position) {
+        return ring[Math.floorMod(head - position, ring.length)];
+    }
+
+    // entries are in descending id order by position, so binary search for the first id below before
+    private int firstOlderThan(long before) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid).getId() < before) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
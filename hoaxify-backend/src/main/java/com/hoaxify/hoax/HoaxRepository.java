@@ -0,0 +1,16 @@
+package com.hoaxify.hoax;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface HoaxRepository extends JpaRepository<Hoax, Long> {
+
+    // keyset pagination: newest first, walking down the id index, authors fetched in the same query;
+    // the first page passes Long.MAX_VALUE too, without the bound H2 drives the join from user and sorts
+    @Query("select h from Hoax h join fetch h.user where h.id < :before order by h.id desc")
+    List<Hoax> findFeedBefore(@Param("before") long before, Pageable pageable);
+}
@@ -0,0 +1,54 @@
+package com.hoaxify.hoax;
+
+import com.hoaxify.hoax.vm.HoaxVM;
+import com.hoaxify.user.User;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class HoaxService {
+
+    private HoaxWriteBehind hoaxWriteBehind;
+
+    private HoaxFeedWindow hoaxFeedWindow;
+
+    private HoaxRepository hoaxRepository;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    public HoaxService(HoaxWriteBehind hoaxWriteBehind, HoaxFeedWindow hoaxFeedWindow, HoaxRepository hoaxRepository,
+                       PlatformTransactionManager transactionManager) {
+        this.hoaxWriteBehind = hoaxWriteBehind;
+        this.hoaxFeedWindow = hoaxFeedWindow;
+        this.hoaxRepository = hoaxRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    public boolean submit(Hoax hoax, User user) {
+        hoax.setId(null);
+        hoax.setTimestamp(System.currentTimeMillis());
+        hoax.setUser(user);
+        return hoaxWriteBehind.offer(hoax);
+    }
+
+    public List<HoaxVM> getFeed(Long before, int size) {
+        List<HoaxVM> page = hoaxFeedWindow.page(before, size);
+        if (page == null && hoaxFeedWindow.refreshIfStale()) {
+            page = hoaxFeedWindow.page(before, size);
+        }
+        if (page != null) {
+            return page;
+        }
+        // no transaction for window hits, so they never take a pooled connection
+        return readOnlyTransactionTemplate.execute(status -> {
+            List<Hoax> hoaxes = hoaxRepository.findFeedBefore(before == null ? Long.MAX_VALUE : before, PageRequest.of(0, size));
+            return hoaxes.stream().map(HoaxVM::new).collect(Collectors.toList());
+        });
+    }
+}
@@ -0,0 +1,176 @@
+package com.hoaxify.hoax;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded queue between accepted hoaxes and the database. A single writer thread flushes a batch
+ * once {@code batch-size} hoaxes are waiting or {@code max-delay} has passed since the first of them,
+ * in one transaction with JDBC batching.
+ *
+ * An accepted hoax lives only in this node's memory until its batch commits: a clean shutdown drains
+ * the queue, a crash loses at most what was queued. When the queue is full {@link #offer} refuses
+ * instead of blocking, and the caller is expected to tell the client to retry. If a batch fails, its
+ * hoaxes are retried one transaction each so a single bad row only costs itself. Committed hoaxes are
+ * announced with a {@link HoaxesSavedEvent} on the writer thread.
+ */
+@Slf4j
+@Component
+public class HoaxWriteBehind {
+
+    private final HoaxRepository hoaxRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BlockingQueue<Hoax> queue;
+
+    private final int batchSize;
+
+    private final long maxDelayNanos;
+
+    private final Counter persisted;
+
+    private final Counter failed;
+
+    private final Counter rejected;
+
+    private final Timer flushTimer;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Thread writer = new Thread(this::run, "hoax-write-behind");
+
+    private volatile boolean running = true;
+
+    public HoaxWriteBehind(HoaxRepository hoaxRepository, PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                           @Value("${hoaxify.hoax-write-behind.capacity:10000}") int capacity,
+                           @Value("${hoaxify.hoax-write-behind.batch-size:500}") int batchSize,
+                           @Value("${hoaxify.hoax-write-behind.max-delay:100ms}") Duration maxDelay) {
+        this.hoaxRepository = hoaxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.persisted = Counter.builder("hoaxify.hoax-write-behind.persisted").register(meterRegistry);
+        this.failed = Counter.builder("hoaxify.hoax-write-behind.failed").register(meterRegistry);
+        this.rejected = Counter.builder("hoaxify.hoax-write-behind.rejected").register(meterRegistry);
+        this.flushTimer = Timer.builder("hoaxify.hoax-write-behind.flush").register(meterRegistry);
+        Gauge.builder("hoaxify.hoax-write-behind.queued", queue, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.start();
+    }
+
+    public boolean offer(Hoax hoax) {
+        pending.incrementAndGet();
+        if (!running || !queue.offer(hoax)) {
+            pending.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    // queued plus the batch being written
+    public int getPending() {
+        return pending.get();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join();
+    }
+
+    private void run() {
+        List<Hoax> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Hoax first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch, System.nanoTime() + maxDelayNanos);
+            } catch (InterruptedException e) {
+                // stop() interrupts to skip the wait; whatever is queued is drained below
+            }
+            flush(batch);
+        }
+        do {
+            queue.drainTo(batch, batchSize);
+            flush(batch);
+        } while (!queue.isEmpty());
+    }
+
+    private void fill(List<Hoax> batch, long deadline) throws InterruptedException {
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() == batchSize || remaining <= 0) {
+                return;
+            }
+            Hoax next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Hoax> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Hoax> saved = new ArrayList<>(batch);
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> hoaxRepository.saveAll(batch)));
+            persisted.increment(batch.size());
+        } catch (RuntimeException batchFailure) {
+            log.warn("Flushing {} hoaxes failed, retrying one by one", batch.size(), batchFailure);
+            saved.clear();
+            for (Hoax hoax : batch) {
+                hoax.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> hoaxRepository.save(hoax));
+                    persisted.increment();
+                    saved.add(hoax);
+                } catch (RuntimeException e) {
+                    log.error("Dropping a hoax that could not be saved", e);
+                    failed.increment();
+                }
+            }
+        }
+        pending.addAndGet(-batch.size());
+        batch.clear();
+        if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(new HoaxesSavedEvent(saved));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.hoaxify.hoax;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class HoaxesSavedEvent {
+
+    List<Hoax> hoaxes;
+}
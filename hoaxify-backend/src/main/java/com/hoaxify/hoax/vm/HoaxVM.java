@@ -0,0 +1,31 @@
+package com.hoaxify.hoax.vm;
+
+import com.hoaxify.hoax.Hoax;
+import com.hoaxify.user.vm.UserVM;
+import lombok.Data;
+
+@Data
+public class HoaxVM {
+
+    private long id;
+
+    private String content;
+
+    private long date;
+
+    private UserVM user;
+
+    public HoaxVM(Hoax hoax) {
+        this.setId(hoax.getId());
+        this.setContent(hoax.getContent());
+        this.setDate(hoax.getTimestamp());
+        this.setUser(new UserVM(hoax.getUser()));
+    }
+
+    public HoaxVM(HoaxVM hoax, UserVM user) {
+        this.setId(hoax.getId());
+        this.setContent(hoax.getContent());
+        this.setDate(hoax.getDate());
+        this.setUser(user);
+    }
+}
@@ -0,0 +1,29 @@
+package com.hoaxify.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.hoaxify.AuthAttempt")
+@Label("Authentication Attempt")
+@Description("A Basic authentication attempt, from user lookup to password check")
+@Category({"Hoaxify", "Security"})
+@StackTrace(false)
+public class AuthAttemptEvent extends jdk.jfr.Event {
+
+    @Label("Username Hash")
+    @Description("First 16 hex digits of the SHA-256 of the username, so attempts on one account can be grouped without recording it")
+    public String usernameHash;
+
+    @Label("Outcome")
+    @Description("SUCCESS, BAD_CREDENTIALS, UNKNOWN_USER or the name of the authentication exception")
+    public String outcome;
+
+    @Label("Password Check Duration")
+    @Description("Time spent in BCrypt matching the password; zero when the user was not found")
+    @Timespan(Timespan.NANOSECONDS)
+    public long passwordCheckDuration;
+}
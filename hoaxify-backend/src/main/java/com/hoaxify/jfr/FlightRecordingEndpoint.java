@@ -0,0 +1,142 @@
+package com.hoaxify.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs one flight recording on demand, with the Hoaxify events enabled:
+ * {@code POST /actuator/jfr/start} (optionally {@code {"settings": "profile"}}),
+ * {@code POST /actuator/jfr/stop}, and {@code GET /actuator/jfr/dump} for the .jfr file, which works
+ * while the recording runs too. The recording is bounded by {@code hoaxify.jfr.max-age} and
+ * {@code max-size}; older data is discarded rather than the recording growing.
+ *
+ * Not exposed unless added to {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+
+    private final Duration maxAge;
+
+    private final DataSize maxSize;
+
+    private final String defaultSettings;
+
+    private Recording recording;
+
+    private String settings;
+
+    private Path lastDump;
+
+    public FlightRecordingEndpoint(@Value("${hoaxify.jfr.max-age:10m}") Duration maxAge,
+                                   @Value("${hoaxify.jfr.max-size:100MB}") DataSize maxSize,
+                                   @Value("${hoaxify.jfr.settings:default}") String defaultSettings) {
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.defaultSettings = defaultSettings;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", recording == null ? "NONE" : recording.getState().name());
+        if (recording != null) {
+            status.put("settings", settings);
+            status.put("startTime", recording.getStartTime());
+            status.put("stopTime", recording.getStopTime());
+            status.put("sizeBytes", recording.getSize());
+        }
+        status.put("maxAge", maxAge.toString());
+        status.put("maxSizeBytes", maxSize.toBytes());
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> control(@Selector String action, @Nullable String settings) throws IOException, ParseException {
+        switch (action) {
+            case "start":
+                return start(settings == null ? defaultSettings : settings);
+            case "stop":
+                if (recording == null || recording.getState() != RecordingState.RUNNING) {
+                    return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_BAD_REQUEST);
+                }
+                recording.stop();
+                return new WebEndpointResponse<>(status());
+            default:
+                return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> dump(@Selector String action) throws IOException {
+        if (!"dump".equals(action) || recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        deleteLastDump();
+        lastDump = Files.createTempFile("hoaxify-", ".jfr");
+        recording.dump(lastDump);
+        return new WebEndpointResponse<>(new FileSystemResource(lastDump));
+    }
+
+    private WebEndpointResponse<Map<String, Object>> start(String settings) throws IOException, ParseException {
+        if (!SETTINGS.contains(settings)) {
+            return new WebEndpointResponse<>(Map.of("message", "settings must be one of " + SETTINGS), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        close();
+        Recording started = new Recording(Configuration.getConfiguration(settings));
+        started.setName("hoaxify");
+        started.setToDisk(true);
+        started.setMaxAge(maxAge);
+        started.setMaxSize(maxSize.toBytes());
+        started.enable(AuthAttemptEvent.class);
+        started.enable(UserPageQueryEvent.class);
+        started.enable(SignupValidationEvent.class);
+        started.start();
+        this.recording = started;
+        this.settings = settings;
+        return new WebEndpointResponse<>(status());
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        deleteLastDump();
+    }
+
+    private void deleteLastDump() throws IOException {
+        if (lastDump != null) {
+            Files.deleteIfExists(lastDump);
+            lastDump = null;
+        }
+    }
+}
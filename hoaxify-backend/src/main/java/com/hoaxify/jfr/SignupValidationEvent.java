@@ -0,0 +1,35 @@
+package com.hoaxify.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.hoaxify.SignupValidation")
+@Label("Signup Username Check")
+@Description("The unique username check of a signup, the only validation that goes to the database")
+@Category({"Hoaxify", "Users"})
+@StackTrace(false)
+public class SignupValidationEvent extends jdk.jfr.Event {
+
+    @Label("Username Hash")
+    public String usernameHash;
+
+    @Label("Outcome")
+    @Description("AVAILABLE, TAKEN, or RESERVED by a signup still being saved")
+    public String outcome;
+
+    /**
+     * A begun event, or null when no recording has the event enabled; checking first keeps the
+     * clock reads of begin and end off the path while nothing records.
+     */
+    public static SignupValidationEvent beginIfRecording() {
+        SignupValidationEvent event = new SignupValidationEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,42 @@
+package com.hoaxify.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.hoaxify.UserPageQuery")
+@Label("User Page Query")
+@Description("A page of the user listing")
+@Category({"Hoaxify", "Users"})
+@StackTrace(false)
+public class UserPageQueryEvent extends jdk.jfr.Event {
+
+    @Label("Page")
+    public int page;
+
+    @Label("Size")
+    public int size;
+
+    @Label("Rows")
+    @Description("Users on the returned page")
+    public int rows;
+
+    @Label("Source")
+    @Description("read-model or database")
+    public String source;
+
+    /**
+     * A begun event, or null when no recording has the event enabled; checking first keeps the
+     * clock reads of begin and end off the path while nothing records.
+     */
+    public static UserPageQueryEvent beginIfRecording() {
+        UserPageQueryEvent event = new UserPageQueryEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,34 @@
+package com.hoaxify.jfr;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Recordings get shared for analysis, so events carry a username hash instead of the username.
+ * Only computed once an event is known to be committed.
+ */
+public final class UsernameHash {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private UsernameHash() {
+    }
+
+    public static String of(String username) {
+        if (username == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(username.getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[16];
+            for (int i = 0; i < 8; i++) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xf];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.hoaxify.tracing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the most recent traces in memory, by trace id, for the {@code traces} actuator endpoint.
+ */
+@Component
+public class InMemoryTraceCollector implements TraceExporter {
+
+    private final Cache<String, Trace> traces;
+
+    public InMemoryTraceCollector(@Value("${hoaxify.tracing.collector.max-traces:1000}") long maxTraces) {
+        this.traces = Caffeine.newBuilder()
+                .maximumSize(maxTraces)
+                .build();
+    }
+
+    @Override
+    public void export(Trace trace) {
+        traces.put(trace.getTraceId(), trace);
+    }
+
+    public Trace find(String traceId) {
+        return traces.getIfPresent(traceId);
+    }
+
+    // newest first
+    public List<Trace> find(long minDurationMicros, int limit) {
+        return traces.asMap().values().stream()
+                .filter(trace -> trace.getDurationMicros() >= minDurationMicros)
+                .sorted(Comparator.comparingLong(Trace::getTimestamp).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+}
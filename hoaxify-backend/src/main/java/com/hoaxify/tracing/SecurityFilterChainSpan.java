@@ -0,0 +1,48 @@
+package com.hoaxify.tracing;
+
+import org.springframework.web.filter.GenericFilterBean;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.IOException;
+
+/**
+ * Times the Spring Security filter chain on its own. {@link Open} goes first in the chain and
+ * {@link Close} last, so the span covers authentication and authorization but not the controller
+ * the chain hands on to. A request the chain rejects never reaches Close and the span ends when
+ * Open returns.
+ */
+public final class SecurityFilterChainSpan {
+
+    private static final String SPAN_ATTRIBUTE = SecurityFilterChainSpan.class.getName();
+
+    private SecurityFilterChainSpan() {
+    }
+
+    public static class Open extends GenericFilterBean {
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            try (Span span = Span.start("security filter chain")) {
+                request.setAttribute(SPAN_ATTRIBUTE, span);
+                chain.doFilter(request, response);
+            } finally {
+                request.removeAttribute(SPAN_ATTRIBUTE);
+            }
+        }
+    }
+
+    public static class Close extends GenericFilterBean {
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            Object span = request.getAttribute(SPAN_ATTRIBUTE);
+            if (span instanceof Span) {
+                ((Span) span).end();
+            }
+            chain.doFilter(request, response);
+        }
+    }
+}
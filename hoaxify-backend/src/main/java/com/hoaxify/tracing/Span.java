@@ -0,0 +1,174 @@
+package com.hoaxify.tracing;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A timed unit of work inside a {@link Trace}. The span started last on a thread is that thread's
+ * current span, and {@link #start(String)} opens a child of it; outside a trace it returns a span
+ * that records nothing, so code on background threads can be instrumented without a check.
+ *
+ * <pre>
+ * try (Span span = Span.start("UserService.save")) {
+ *     ...
+ * }
+ * </pre>
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public final class Span implements AutoCloseable {
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private static final Span NOOP = new Span(null, null, null, "noop");
+
+    private final Trace trace;
+
+    private final Span parent;
+
+    private final String spanId;
+
+    private final String name;
+
+    private final long startNanos = System.nanoTime();
+
+    private final String thread = Thread.currentThread().getName();
+
+    private Map<String, String> tags;
+
+    private String error;
+
+    private volatile long durationNanos = -1;
+
+    private Span(Trace trace, Span parent, String spanId, String name) {
+        this.trace = trace;
+        this.parent = parent;
+        this.spanId = spanId;
+        this.name = name;
+    }
+
+    public static Span start(String name) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return NOOP;
+        }
+        Span span = new Span(parent.trace, parent, newId(), name);
+        CURRENT.set(span);
+        return span;
+    }
+
+    static Span startRoot(Trace trace, String name) {
+        Span span = new Span(trace, null, newId(), name);
+        CURRENT.set(span);
+        return span;
+    }
+
+    /**
+     * Whether this thread is inside a trace, for callers that would build a span name for nothing.
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * The trace id of the span current on this thread, or null outside a trace.
+     */
+    public static String currentTraceId() {
+        Span current = CURRENT.get();
+        return current == null ? null : current.trace.getTraceId();
+    }
+
+    public Span tag(String key, Object value) {
+        if (trace != null) {
+            if (tags == null) {
+                tags = new LinkedHashMap<>();
+            }
+            tags.put(key, String.valueOf(value));
+        }
+        return this;
+    }
+
+    public Span error(Throwable e) {
+        if (trace != null) {
+            error = e.getClass().getSimpleName() + (e.getMessage() == null ? "" : ": " + e.getMessage());
+        }
+        return this;
+    }
+
+    /**
+     * Ends the span and makes its parent current again. Ending twice is harmless, so a span that may
+     * be ended early can still be closed by try-with-resources.
+     */
+    public void end() {
+        if (trace == null || durationNanos >= 0) {
+            return;
+        }
+        durationNanos = System.nanoTime() - startNanos;
+        if (parent == null) {
+            // whatever was left open in this trace, the thread goes back to the pool clean
+            Span current = CURRENT.get();
+            if (current != null && current.trace == trace) {
+                CURRENT.remove();
+            }
+        } else if (CURRENT.get() == this) {
+            CURRENT.set(parent);
+        }
+        trace.finished(this);
+    }
+
+    @Override
+    public void close() {
+        end();
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getParentId() {
+        return parent == null ? null : parent.spanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    // microseconds after the root span started, so a trace reads as a timeline
+    public long getStartMicros() {
+        return trace == null ? 0 : (startNanos - trace.getStartNanos()) / 1000;
+    }
+
+    public long getDurationMicros() {
+        return durationNanos / 1000;
+    }
+
+    public Map<String, String> getTags() {
+        return tags == null ? Collections.emptyMap() : tags;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    @JsonIgnore
+    public boolean isRecording() {
+        return trace != null;
+    }
+
+    static String newId() {
+        String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+}
@@ -0,0 +1,87 @@
+package com.hoaxify.tracing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The spans of one request. Spans are added as they end and the trace is handed to the exporters
+ * when its root span ends; a span that ends after that, on another thread, still shows up in the
+ * in-memory collector but not in spans exported earlier.
+ */
+public final class Trace {
+
+    private final String traceId;
+
+    private final long timestamp = System.currentTimeMillis();
+
+    private final long startNanos = System.nanoTime();
+
+    private final int maxSpans;
+
+    private final Consumer<Trace> onEnd;
+
+    private final List<Span> spans = new ArrayList<>();
+
+    private final Span root;
+
+    private int droppedSpans;
+
+    Trace(String name, int maxSpans, Consumer<Trace> onEnd) {
+        this.traceId = Span.newId() + Span.newId();
+        this.maxSpans = maxSpans;
+        this.onEnd = onEnd;
+        this.root = Span.startRoot(this, name);
+    }
+
+    Span getRoot() {
+        return root;
+    }
+
+    void finished(Span span) {
+        synchronized (this) {
+            if (span != root && spans.size() >= maxSpans) {
+                droppedSpans++;
+                return;
+            }
+            spans.add(span);
+        }
+        if (span == root) {
+            onEnd.accept(this);
+        }
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getName() {
+        return root.getName();
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getDurationMicros() {
+        return root.getDurationMicros();
+    }
+
+    public synchronized int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    public List<Span> getSpans() {
+        List<Span> copy;
+        synchronized (this) {
+            copy = new ArrayList<>(spans);
+        }
+        copy.sort(Comparator.comparingLong(Span::getStartNanos));
+        return copy;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+}
@@ -0,0 +1,10 @@
+package com.hoaxify.tracing;
+
+/**
+ * Receives each trace when its root span ends, on the request thread, so implementations hand the
+ * trace off rather than doing I/O inline.
+ */
+public interface TraceExporter {
+
+    void export(Trace trace);
+}
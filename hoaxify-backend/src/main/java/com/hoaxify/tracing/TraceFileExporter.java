@@ -0,0 +1,88 @@
+package com.hoaxify.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends every trace as one JSON line to {@code hoaxify.tracing.file}. Writing happens on a
+ * single background thread; when it falls {@code queue-capacity} traces behind, traces are dropped
+ * and counted rather than slowing requests down.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "hoaxify.tracing.file")
+public class TraceFileExporter implements TraceExporter {
+
+    private final ObjectMapper objectMapper;
+
+    private final BufferedWriter writer;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Counter dropped;
+
+    public TraceFileExporter(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${hoaxify.tracing.file}") String file,
+                             @Value("${hoaxify.tracing.queue-capacity:1000}") int queueCapacity) throws IOException {
+        this.objectMapper = objectMapper;
+        Path path = Paths.get(file).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.dropped = Counter.builder("hoaxify.tracing.dropped")
+                .description("Traces not written to the trace file because the writer was behind")
+                .register(meterRegistry);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "trace-file-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> dropped.increment());
+    }
+
+    @Override
+    public void export(Trace trace) {
+        executor.execute(() -> write(trace));
+    }
+
+    private void write(Trace trace) {
+        try {
+            writer.write(objectMapper.writeValueAsString(trace));
+            writer.newLine();
+            if (executor.getQueue().isEmpty()) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            log.warn("Could not write trace {}", trace.getTraceId(), e);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
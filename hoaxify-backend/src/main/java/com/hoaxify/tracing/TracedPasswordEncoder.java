@@ -0,0 +1,37 @@
+package com.hoaxify.tracing;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Puts hashing and matching in spans of their own; with BCrypt they are usually the slowest part
+ * of a signup or login.
+ */
+public class TracedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    public TracedPasswordEncoder(PasswordEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        try (Span span = Span.start("PasswordEncoder.encode")) {
+            return delegate.encode(rawPassword);
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        try (Span span = Span.start("PasswordEncoder.matches")) {
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            span.tag("matches", matches);
+            return matches;
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,56 @@
+package com.hoaxify.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Starts traces and hands finished ones to every {@link TraceExporter}. Only the root span of a
+ * trace is started here; everything inside it uses {@link Span#start(String)}.
+ */
+@Slf4j
+@Component
+public class Tracer {
+
+    public static final String TRACE_ID_ATTRIBUTE = Tracer.class.getName() + ".traceId";
+
+    private final List<TraceExporter> exporters;
+
+    private final Counter exported;
+
+    @Value("${hoaxify.tracing.max-spans-per-trace:256}")
+    private int maxSpansPerTrace;
+
+    public Tracer(List<TraceExporter> exporters, MeterRegistry meterRegistry) {
+        this.exporters = exporters;
+        this.exported = Counter.builder("hoaxify.tracing.traces")
+                .description("Traces finished and handed to the exporters")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a trace with the returned span as its root, or a child span when this thread is
+     * already inside a trace.
+     */
+    public Span startTrace(String name) {
+        if (Span.isActive()) {
+            return Span.start(name);
+        }
+        return new Trace(name, maxSpansPerTrace, this::export).getRoot();
+    }
+
+    private void export(Trace trace) {
+        exported.increment();
+        for (TraceExporter exporter : exporters) {
+            try {
+                exporter.export(trace);
+            } catch (RuntimeException e) {
+                log.warn("Trace exporter {} failed", exporter.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
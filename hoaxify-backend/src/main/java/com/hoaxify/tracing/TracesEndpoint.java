@@ -0,0 +1,64 @@
+package com.hoaxify.tracing;
+
+import lombok.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * {@code /actuator/traces} lists recent traces, optionally only those slower than
+ * {@code minDurationMillis}; {@code /actuator/traces/{traceId}} returns every span of one trace, as
+ * found in the {@code traceId} of an error response or the {@code X-Trace-Id} header.
+ */
+@Component
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+
+    private static final int MAX_LISTED = 100;
+
+    private final InMemoryTraceCollector collector;
+
+    public TracesEndpoint(InMemoryTraceCollector collector) {
+        this.collector = collector;
+    }
+
+    @ReadOperation
+    public List<TraceSummary> traces(@Nullable Long minDurationMillis) {
+        long minDurationMicros = minDurationMillis == null ? 0 : minDurationMillis * 1000;
+        return collector.find(minDurationMicros, MAX_LISTED).stream()
+                .map(TraceSummary::new)
+                .collect(Collectors.toList());
+    }
+
+    @ReadOperation
+    public Trace trace(@Selector String traceId) {
+        return collector.find(traceId);
+    }
+
+    @Value
+    public static class TraceSummary {
+
+        String traceId;
+
+        String name;
+
+        long timestamp;
+
+        long durationMicros;
+
+        int spans;
+
+        TraceSummary(Trace trace) {
+            this.traceId = trace.getTraceId();
+            this.name = trace.getName();
+            this.timestamp = trace.getTimestamp();
+            this.durationMicros = trace.getDurationMicros();
+            this.spans = trace.getSpans().size();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.hoaxify.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+@Configuration
+public class TracingConfiguration {
+
+    // Outermost, so rejections by the idempotency and concurrency filters are traced too.
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter(Tracer tracer) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(tracer));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // A span per repository method call, added to each repository proxy as Spring Data creates it.
+    @Bean
+    public static BeanPostProcessor repositorySpans() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, repository) ->
+                                    proxyFactory.addAdvice(repositorySpan(repository.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor repositorySpan(String repository) {
+        return invocation -> {
+            if (!Span.isActive()) {
+                return invocation.proceed();
+            }
+            try (Span span = Span.start(repository + "." + invocation.getMethod().getName())) {
+                return invocation.proceed();
+            }
+        };
+    }
+
+    // Replaces Spring Boot's converter, so writing a response body gets a span.
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                try (Span span = Span.start("JSON write")) {
+                    if (span.isRecording() && object != null) {
+                        span.tag("type", object.getClass().getSimpleName());
+                    }
+                    super.writeInternal(object, type, outputMessage);
+                }
+            }
+        };
+    }
+}
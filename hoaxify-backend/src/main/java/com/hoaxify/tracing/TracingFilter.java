@@ -0,0 +1,41 @@
+package com.hoaxify.tracing;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Opens the root span of every request and tells the client its trace id in {@code X-Trace-Id}.
+ * The id is also kept as a request attribute, for the error dispatch that runs after the trace ended.
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final Tracer tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Span span = tracer.startTrace(request.getMethod() + " " + request.getRequestURI());
+        String traceId = Span.currentTraceId();
+        request.setAttribute(Tracer.TRACE_ID_ATTRIBUTE, traceId);
+        response.setHeader(TRACE_ID_HEADER, traceId);
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.tag("status", response.getStatus());
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.hoaxify.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills {@code normalized_username} for users written before the column existed. Rows are walked in id
+ * order, a batch per transaction, so the table is never locked as a whole and a restart picks up where
+ * the last run stopped. Plain JDBC keeps the entity listener from touching {@code updatedAt} and
+ * {@code version}, which would change every profile's Last-Modified and ETag.
+ *
+ * Two existing users whose names only differ in case cannot both hold the unique index. The later one
+ * is left unfilled and logged; it cannot log in until it is renamed by hand.
+ */
+@Slf4j
+@Component
+public class NormalizedUsernameBackfill implements ApplicationRunner {
+
+    private static final String SELECT_BATCH = "SELECT id, username FROM user WHERE normalized_username IS NULL AND id > ? ORDER BY id LIMIT ?";
+
+    private static final String UPDATE = "UPDATE user SET normalized_username = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${hoaxify.normalized-username-backfill.batch-size:1000}")
+    private int batchSize;
+
+    public NormalizedUsernameBackfill(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        backfill();
+    }
+
+    public int backfill() {
+        long cursor = Long.MIN_VALUE;
+        int filled = 0;
+        List<Object[]> batch;
+        do {
+            batch = jdbcTemplate.query(SELECT_BATCH, (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2)}, cursor, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            filled += fill(batch);
+            cursor = (long) batch.get(batch.size() - 1)[0];
+        } while (batch.size() == batchSize);
+        if (filled > 0) {
+            log.info("Backfilled the normalized username of {} users", filled);
+        }
+        return filled;
+    }
+
+    private int fill(List<Object[]> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE, batch, batch.size(),
+                    (ps, row) -> {
+                        ps.setString(1, UsernameNormalizer.normalize((String) row[1]));
+                        ps.setLong(2, (long) row[0]);
+                    }));
+            return batch.size();
+        } catch (DataIntegrityViolationException e) {
+            // a name collides somewhere in the batch; redo it row by row to fill all the others
+            int filled = 0;
+            for (Object[] row : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            jdbcTemplate.update(UPDATE, UsernameNormalizer.normalize((String) row[1]), row[0]));
+                    filled++;
+                } catch (DataIntegrityViolationException duplicate) {
+                    log.warn("User {} ({}) has the same normalized username as another user and was left unfilled", row[0], row[1]);
+                }
+            }
+            return filled;
+        }
+    }
+}
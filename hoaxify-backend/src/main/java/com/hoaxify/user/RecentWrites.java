@@ -0,0 +1,40 @@
+package com.hoaxify.user;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Usernames written on this node within the replica lag window; their reads stay on the primary.
+@Component
+public class RecentWrites {
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+
+    @Value("${hoaxify.datasource.read-your-writes-window:5s}")
+    private Duration window;
+
+    public void record(String username) {
+        long now = System.nanoTime();
+        if (expiries.size() > PURGE_THRESHOLD) {
+            expiries.values().removeIf(expiry -> expiry - now < 0);
+        }
+        expiries.put(username, now + window.toNanos());
+    }
+
+    public boolean contains(String username) {
+        Long expiry = expiries.get(username);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry - System.nanoTime() < 0) {
+            expiries.remove(username, expiry);
+            return false;
+        }
+        return true;
+    }
+}
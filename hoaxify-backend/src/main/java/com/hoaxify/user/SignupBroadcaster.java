@@ -0,0 +1,216 @@
+package com.hoaxify.user;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hoaxify.user.vm.UserVM;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed signups to every open {@code /api/1.0/signups/stream} connection. Publishing
+ * serialises the user once and hands it to a single fan-out thread, which offers it to each
+ * subscriber's bounded queue; the socket writes happen on a small writer pool, so neither the number
+ * of subscribers nor a slow client holds up the request that saved the user.
+ * A subscriber whose queue is full is disconnected; EventSource clients reconnect and re-fetch.
+ * Heartbeats go through the same queues, which is also how closed connections are noticed.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+public class SignupBroadcaster {
+
+    static final String EVENT_NAME = "signup";
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ObjectMapper objectMapper;
+
+    private final ExecutorService fanOut;
+
+    private final ExecutorService writers;
+
+    private final Counter dropped;
+
+    @Value("${hoaxify.signup-stream.buffer-size:16}")
+    private int bufferSize;
+
+    @Value("${hoaxify.signup-stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${hoaxify.signup-stream.timeout:10m}")
+    private Duration timeout;
+
+    @Value("${hoaxify.signup-stream.reconnect-time:3s}")
+    private Duration reconnectTime;
+
+    public SignupBroadcaster(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${hoaxify.signup-stream.writer-threads:4}") int writerThreads) {
+        this.objectMapper = objectMapper;
+        this.fanOut = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("signup-fan-out-"));
+        this.writers = Executors.newFixedThreadPool(writerThreads, new CustomizableThreadFactory("signup-stream-"));
+        this.dropped = Counter.builder("hoaxify.signup-stream.dropped")
+                .description("Subscribers disconnected because they fell too far behind")
+                .register(meterRegistry);
+        Gauge.builder("hoaxify.signup-stream.subscribers", subscribers, Set::size)
+                .register(meterRegistry);
+    }
+
+    public Optional<SseEmitter> subscribe() throws IOException {
+        if (subscribers.size() >= maxSubscribers) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        // headers are only committed with the first event, so open the stream with the retry hint
+        emitter.send(SseEmitter.event().reconnectTime(reconnectTime.toMillis()));
+        subscribers.add(subscriber);
+        return Optional.of(emitter);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        publish(new UserVM(event.getUser()));
+    }
+
+    public void publish(UserVM user) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(user);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialise signup of {}", user.getUsername(), e);
+            return;
+        }
+        Payload signup = new Payload(json);
+        fanOut.execute(() -> offerToAll(signup));
+    }
+
+    @Scheduled(fixedDelayString = "${hoaxify.signup-stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        fanOut.execute(() -> offerToAll(Payload.HEARTBEAT));
+    }
+
+    private void offerToAll(Payload payload) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(payload)) {
+                subscribers.remove(subscriber);
+                dropped.increment();
+                subscriber.close();
+            }
+        }
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fanOut.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<Payload> queue;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, BlockingQueue<Payload> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        boolean offer(Payload payload) {
+            if (!queue.offer(payload)) {
+                return false;
+            }
+            schedule();
+            return true;
+        }
+
+        // completing takes the emitter's lock, which a blocked write holds, so leave it to the writer
+        void close() {
+            closed = true;
+            queue.clear();
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                writers.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Payload payload;
+                while (!closed && (payload = queue.poll()) != null) {
+                    emitter.send(payload.toEvent());
+                }
+                if (closed) {
+                    emitter.complete();
+                    return;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client went away; the container reports it through onError/onCompletion
+                subscribers.remove(this);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            // an offer or close that lost the race with the flag reset above still needs a writer
+            if (closed || !queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    // a signup's JSON, shared by every subscriber's queue, or the heartbeat, which carries none
+    private static final class Payload {
+
+        static final Payload HEARTBEAT = new Payload(null);
+
+        private final String json;
+
+        Payload(String json) {
+            this.json = json;
+        }
+
+        // a fresh builder per send: building one appends to it, so it cannot be shared between emitters
+        SseEmitter.SseEventBuilder toEvent() {
+            return json == null ? SseEmitter.event().comment("") : SseEmitter.event().name(EVENT_NAME).data(json);
+        }
+    }
+}
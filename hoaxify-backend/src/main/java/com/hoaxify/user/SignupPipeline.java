@@ -0,0 +1,115 @@
+package com.hoaxify.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hoaxify.error.ConflictException;
+import com.hoaxify.user.vm.SignupStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the expensive half of a signup, the BCrypt hash and the insert in {@link UserService#save},
+ * on a fixed pool behind a bounded queue, so a burst of signups waits here rather than on Tomcat
+ * threads. The caller has already validated the user; {@link #submit} reserves the username and
+ * hands back an id whose outcome can be looked up with {@link #getStatus} for {@code status-ttl}.
+ *
+ * A queued signup lives only in this node's memory: a clean shutdown finishes the queue, a crash
+ * loses it, and the client sees the id expire and has to sign up again.
+ */
+@Slf4j
+@Component
+public class SignupPipeline {
+
+    private final UserService userService;
+
+    private final UsernameReservations usernameReservations;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Cache<String, CompletableFuture<SignupStatus>> statuses;
+
+    private final Counter saved;
+
+    private final Counter failed;
+
+    private final Counter rejected;
+
+    public SignupPipeline(UserService userService, UsernameReservations usernameReservations, MeterRegistry meterRegistry,
+                          @Value("${hoaxify.async-signup.threads:2}") int threads,
+                          @Value("${hoaxify.async-signup.queue-capacity:1000}") int queueCapacity,
+                          @Value("${hoaxify.async-signup.status-ttl:10m}") Duration statusTtl) {
+        this.userService = userService;
+        this.usernameReservations = usernameReservations;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> new Thread(task, "async-signup-" + threadCount.incrementAndGet()));
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(statusTtl)
+                .build();
+        this.saved = Counter.builder("hoaxify.async-signup.completed").tag("outcome", "saved").register(meterRegistry);
+        this.failed = Counter.builder("hoaxify.async-signup.completed").tag("outcome", "failed").register(meterRegistry);
+        this.rejected = Counter.builder("hoaxify.async-signup.rejected").register(meterRegistry);
+        Gauge.builder("hoaxify.async-signup.queued", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    // empty when the queue is full; the caller should tell the client to retry
+    public Optional<String> submit(User user) {
+        String username = user.getUsername();
+        if (!usernameReservations.reserve(username)) {
+            throw new ConflictException(username + " is already being signed up");
+        }
+        String id = UUID.randomUUID().toString();
+        CompletableFuture<SignupStatus> completion = new CompletableFuture<>();
+        statuses.put(id, completion);
+        try {
+            executor.execute(() -> process(id, user, completion));
+        } catch (RejectedExecutionException e) {
+            statuses.invalidate(id);
+            usernameReservations.release(username);
+            rejected.increment();
+            return Optional.empty();
+        }
+        return Optional.of(id);
+    }
+
+    public Optional<CompletableFuture<SignupStatus>> getStatus(String id) {
+        return Optional.ofNullable(statuses.getIfPresent(id));
+    }
+
+    private void process(String id, User user, CompletableFuture<SignupStatus> completion) {
+        try {
+            User inDB = userService.save(user);
+            saved.increment();
+            completion.complete(SignupStatus.saved(id, inDB.getId()));
+        } catch (RuntimeException e) {
+            log.warn("Asynchronous signup of {} failed", user.getUsername(), e);
+            failed.increment();
+            completion.complete(SignupStatus.failed(id, "User could not be saved"));
+        } finally {
+            usernameReservations.release(user.getUsername());
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
@@ -1,5 +1,7 @@
 package com.hoaxify.user;
 
+import com.hoaxify.jfr.SignupValidationEvent;
+import com.hoaxify.jfr.UsernameHash;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.validation.ConstraintValidator;
@@ -10,13 +12,33 @@ public class UniqueUsernameValidator implements ConstraintValidator<UniqueUserna
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    UsernameReservations usernameReservations;
+
     @Override
     public boolean isValid(String value, ConstraintValidatorContext context) {
-
-        User inDB = userRepository.findByUsername(value);
+        SignupValidationEvent event = SignupValidationEvent.beginIfRecording();
+        if (usernameReservations.isReserved(value)) {
+            record(event, value, "RESERVED");
+            return false;
+        }
+        User inDB = userRepository.findByNormalizedUsername(UsernameNormalizer.normalize(value));
         if(inDB == null) {
+            record(event, value, "AVAILABLE");
             return true;
         }
+        record(event, value, "TAKEN");
         return false;
     }
+
+    private static void record(SignupValidationEvent event, String username, String outcome) {
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.usernameHash = UsernameHash.of(username);
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
 }
@@ -9,14 +9,24 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 import javax.persistence.Transient;
+import javax.persistence.Version;
+import javax.validation.GroupSequence;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
@@ -25,17 +35,30 @@ import java.util.*;
 
 @Data
 @Entity
+@DynamicUpdate
+@Table(indexes = @Index(name = User.NORMALIZED_USERNAME_INDEX, columnList = "normalizedUsername", unique = true))
+@GroupSequence({User.class, User.DatabaseChecks.class})
 public class User implements UserDetails {
 
     private static final long serialVersionUID = 4074374728582967483L;
 
+    public static final String NORMALIZED_USERNAME_INDEX = "user_normalized_username";
+
+    // Constraints in this group query the database. The sequence above only reaches them once every
+    // field check in the default group has passed, so malformed signups never cost a lookup.
+    public interface DatabaseChecks {
+    }
+
+    // ids are reserved from the sequence in blocks, so inserts can be batched and no round trip is
+    // needed per row; every node reserves its own blocks from the shared sequence
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Integer id;
 
     @NotNull(message = "{hoaxify.constraints.username.NotNull.message}")
     @Size(min = 4, max = 255)
-    @UniqueUsername
+    @UniqueUsername(groups = DatabaseChecks.class)
     private String username;
 
     @NotNull
@@ -49,6 +72,28 @@ public class User implements UserDetails {
 
     private String image;
 
+    // what uniqueness and lookups go by, so "User1" and "user1" are one account; rows written before
+    // the column existed are filled in by NormalizedUsernameBackfill
+    @JsonIgnore
+    private String normalizedUsername;
+
+    @JsonIgnore
+    private long updatedAt;
+
+    // bumped by every update, which only succeeds if no other update committed since the row was read;
+    // updates write just the columns that changed (@DynamicUpdate), so a rename never rewrites the password
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long version;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        normalizedUsername = UsernameNormalizer.normalize(username);
+        updatedAt = System.currentTimeMillis();
+    }
+
     @Override
     @Transient
     @JsonDeserialize(using = CustomAuthorityDeserializer.class)
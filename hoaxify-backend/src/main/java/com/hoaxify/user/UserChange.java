@@ -0,0 +1,35 @@
+package com.hoaxify.user;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "user_change_log", indexes = @Index(columnList = "changedAt"))
+public class UserChange {
+
+    // identity keeps the sequence gap-free apart from rolled back transactions, which the poller relies on
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Integer userId;
+
+    private String username;
+
+    private long changedAt = new Date().getTime();
+
+    public UserChange(User user) {
+        this.userId = user.getId();
+        this.username = user.getUsername();
+    }
+}
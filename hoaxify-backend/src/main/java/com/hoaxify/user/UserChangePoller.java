@@ -0,0 +1,123 @@
+package com.hoaxify.user;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tails the user change log written by {@link UserService} on every node and republishes each batch
+ * as a local {@link UsersChangedEvent}, so in-process caches can drop entries written elsewhere.
+ *
+ * Ids are handed out at insert but become visible at commit, so a lower id can show up after a higher
+ * one. The cursor only advances over a contiguous run of ids; a gap is waited on for
+ * {@code gap-timeout} before it is assumed to be a rolled back transaction. Entries past a gap are
+ * re-delivered on the next poll, which is harmless for invalidation.
+ *
+ * A single node can turn it off with {@code hoaxify.user-change-log.enabled=false}; its own writes
+ * invalidate its caches directly.
+ */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "hoaxify.user-change-log.enabled", havingValue = "true", matchIfMissing = true)
+public class UserChangePoller {
+
+    private final UserChangeRepository userChangeRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Timer lag;
+
+    @Value("${hoaxify.user-change-log.batch-size:500}")
+    private int batchSize;
+
+    @Value("${hoaxify.user-change-log.gap-timeout:10s}")
+    private Duration gapTimeout;
+
+    @Value("${hoaxify.user-change-log.retention:1h}")
+    private Duration retention;
+
+    private volatile long cursor = -1;
+
+    private long gapSince;
+
+    public UserChangePoller(UserChangeRepository userChangeRepository, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.userChangeRepository = userChangeRepository;
+        this.eventPublisher = eventPublisher;
+        this.lag = Timer.builder("hoaxify.user-change-log.lag")
+                .description("Time between a user change being logged and this node applying it")
+                .register(meterRegistry);
+        Gauge.builder("hoaxify.user-change-log.cursor", this, poller -> poller.cursor)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${hoaxify.user-change-log.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        if (cursor < 0) {
+            // caches start empty, so there is nothing to replay from before this node came up
+            cursor = userChangeRepository.findMaxId();
+            return;
+        }
+        List<UserChange> changes;
+        do {
+            changes = userChangeRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, batchSize));
+            if (changes.isEmpty()) {
+                return;
+            }
+            publish(changes);
+        } while (advance(changes) && changes.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${hoaxify.user-change-log.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        userChangeRepository.deleteOlderThan(System.currentTimeMillis() - retention.toMillis());
+    }
+
+    private void publish(List<UserChange> changes) {
+        Set<Integer> userIds = new LinkedHashSet<>();
+        Set<String> usernames = new LinkedHashSet<>();
+        long now = System.currentTimeMillis();
+        for (UserChange change : changes) {
+            userIds.add(change.getUserId());
+            usernames.add(change.getUsername());
+            lag.record(Math.max(0, now - change.getChangedAt()), TimeUnit.MILLISECONDS);
+        }
+        eventPublisher.publishEvent(new UsersChangedEvent(userIds, usernames));
+    }
+
+    private boolean advance(List<UserChange> changes) {
+        long next = cursor;
+        for (UserChange change : changes) {
+            if (change.getId() != next + 1) {
+                break;
+            }
+            next = change.getId();
+        }
+        if (next > cursor) {
+            cursor = next;
+            gapSince = 0;
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (gapSince == 0) {
+            gapSince = now;
+        } else if (now - gapSince > gapTimeout.toMillis()) {
+            cursor = changes.get(0).getId() - 1;
+            gapSince = 0;
+            return true;
+        }
+        return false;
+    }
+}
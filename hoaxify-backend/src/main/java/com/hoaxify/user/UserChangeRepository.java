@@ -0,0 +1,23 @@
+package com.hoaxify.user;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface UserChangeRepository extends JpaRepository<UserChange, Long> {
+
+    List<UserChange> findByIdGreaterThanOrderByIdAsc(long id, Pageable page);
+
+    @Query("select coalesce(max(c.id), 0) from UserChange c")
+    long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query("delete from UserChange c where c.changedAt < :changedAt")
+    int deleteOlderThan(@Param("changedAt") long changedAt);
+}
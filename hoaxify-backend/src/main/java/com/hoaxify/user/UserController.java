@@ -1,55 +1,158 @@
 package com.hoaxify.user;
 
 import com.hoaxify.error.ApiError;
+import com.hoaxify.error.NotFoundException;
 import com.hoaxify.shared.CurrentUser;
 import com.hoaxify.shared.GenericResponse;
+import com.hoaxify.user.vm.UserBatchRequest;
+import com.hoaxify.user.vm.SignupStatus;
+import com.hoaxify.user.vm.UserBatchVM;
+import com.hoaxify.user.vm.UserUpdateVM;
 import com.hoaxify.user.vm.UserVM;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.validation.BindingResult;
-import org.springframework.validation.FieldError;
-import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
-import java.util.HashMap;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/1.0")
 public class UserController {
 
+    private static final int MAX_SIGNUP_STATUS_WAIT_SECONDS = 20;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SignupBroadcaster signupBroadcaster;
+
+    @Autowired
+    private SignupPipeline signupPipeline;
+
+    // "Prefer: respond-async" (RFC 7240) answers 202 once the user is validated; the hash and insert
+    // run on SignupPipeline and the outcome is polled from the Location
     @PostMapping("/users")
-    GenericResponse createUser(@Valid @RequestBody User user) {
-        userService.save(user);
-        return new GenericResponse("User saved");
+    ResponseEntity<Object> createUser(@Valid @RequestBody User user,
+                                      @RequestHeader(value = "Prefer", required = false) String prefer,
+                                      HttpServletRequest request) {
+        if (!prefersAsync(prefer)) {
+            userService.save(user);
+            return ResponseEntity.ok(new GenericResponse("User saved"));
+        }
+        return signupPipeline.submit(user)
+                .<ResponseEntity<Object>>map(id -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .location(URI.create("/api/1.0/signups/" + id))
+                        .header("Preference-Applied", "respond-async")
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(SignupStatus.pending(id)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(new ApiError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many signups waiting to be saved", request.getServletPath())));
+    }
+
+    // wait > 0 long-polls: the answer comes as soon as the signup completes, or PENDING after wait seconds
+    @GetMapping("/signups/{id}")
+    CompletableFuture<SignupStatus> getSignupStatus(@PathVariable String id, @RequestParam(defaultValue = "0") int wait) {
+        CompletableFuture<SignupStatus> completion = signupPipeline.getStatus(id)
+                .orElseThrow(() -> new NotFoundException("Signup " + id + " not found"));
+        if (completion.isDone() || wait <= 0) {
+            return CompletableFuture.completedFuture(completion.getNow(SignupStatus.pending(id)));
+        }
+        return completion.copy().completeOnTimeout(SignupStatus.pending(id), Math.min(wait, MAX_SIGNUP_STATUS_WAIT_SECONDS), TimeUnit.SECONDS);
     }
 
     @GetMapping("/users")
     Page<UserVM> getUsers(@CurrentUser User loggedInUser, Pageable page) {
-        return userService.getUsers(loggedInUser, page).map(UserVM::new);
+        return userService.getUsers(loggedInUser, page);
     }
 
+    @GetMapping("/signups/stream")
+    ResponseEntity<SseEmitter> streamSignups() throws IOException {
+        return signupBroadcaster.subscribe()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
 
-    @ExceptionHandler({MethodArgumentNotValidException.class})
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    ApiError handleValidationException(MethodArgumentNotValidException exception, HttpServletRequest request) {
-        ApiError apiError = new ApiError(HttpStatus.BAD_REQUEST.value(), "Validation error", request.getServletPath());
+    @GetMapping("/users/{username}")
+    ResponseEntity<UserVM> getUserByName(@PathVariable String username, WebRequest request) {
+        UserProfile profile = userService.getProfile(username);
+        if (request.checkNotModified(profile.getEtag(), profile.getUpdatedAt())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(profile.getUser());
+    }
 
-        BindingResult result = exception.getBindingResult();
+    // 409 when the user changed after the If-Match ETag was read, or while this update was running
+    @PutMapping("/users/{id:[0-9]+}")
+    ResponseEntity<UserVM> updateUser(@PathVariable int id, @Valid @RequestBody UserUpdateVM update,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                      @CurrentUser User loggedInUser) {
+        if (loggedInUser.getId() != id) {
+            throw new AccessDeniedException("Users can only update themselves");
+        }
+        UserProfile profile = userService.update(id, update, ifMatch);
+        return ResponseEntity.ok()
+                .eTag(profile.getEtag())
+                .body(profile.getUser());
+    }
 
-        Map<String, String> validationErrors = new HashMap<>();
+    @PostMapping("/users/batch")
+    UserBatchVM getUsersBatch(@Valid @RequestBody UserBatchRequest request) {
+        Set<Integer> ids = new LinkedHashSet<>(request.getIds());
+        Set<String> usernames = new LinkedHashSet<>(request.getUsernames());
+        Map<Integer, User> byId = userService.getUsersByIds(ids);
+        Map<String, User> byUsername = userService.getUsersByUsernames(usernames);
 
-        for(FieldError fieldError: result.getFieldErrors()) {
-            validationErrors.put(fieldError.getField(), fieldError.getDefaultMessage());
+        UserBatchVM batch = new UserBatchVM();
+        Set<Integer> added = new HashSet<>();
+        for (Integer id : ids) {
+            User user = byId.get(id);
+            if (user == null) {
+                batch.getMissingIds().add(id);
+            } else if (added.add(user.getId())) {
+                batch.getUsers().add(new UserVM(user));
+            }
+        }
+        for (String username : usernames) {
+            User user = byUsername.get(username);
+            if (user == null) {
+                batch.getMissingUsernames().add(username);
+            } else if (added.add(user.getId())) {
+                batch.getUsers().add(new UserVM(user));
+            }
+        }
+        return batch;
+    }
+
+    private static boolean prefersAsync(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if ("respond-async".equalsIgnoreCase(preference.trim())) {
+                return true;
+            }
         }
-        apiError.setValidationErrors(validationErrors);
-        return apiError;
+        return false;
     }
 }
@@ -0,0 +1,9 @@
+package com.hoaxify.user;
+
+import lombok.Value;
+
+@Value
+public class UserCreatedEvent {
+
+    User user;
+}
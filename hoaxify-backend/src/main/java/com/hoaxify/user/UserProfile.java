@@ -0,0 +1,25 @@
+package com.hoaxify.user;
+
+import com.hoaxify.user.vm.UserVM;
+import lombok.Value;
+
+@Value
+public class UserProfile {
+
+    UserVM user;
+
+    long updatedAt;
+
+    String etag;
+
+    UserProfile(User user) {
+        this.user = new UserVM(user);
+        this.updatedAt = user.getUpdatedAt();
+        this.etag = etagOf(user);
+    }
+
+    // what PUT /api/1.0/users/{id} expects in If-Match
+    static String etagOf(User user) {
+        return "\"" + user.getId() + "-" + user.getVersion() + "\"";
+    }
+}
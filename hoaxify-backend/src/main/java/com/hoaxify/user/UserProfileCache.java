@@ -0,0 +1,48 @@
+package com.hoaxify.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Profiles by username for {@code GET /api/1.0/users/{username}}. Entries are dropped when this node
+ * saves the user and when {@link UserChangePoller} reports a change made on another node; the expiry
+ * only bounds how long a missed invalidation can be served.
+ */
+@Component
+public class UserProfileCache {
+
+    private final Cache<String, UserProfile> cache;
+
+    public UserProfileCache(@Value("${hoaxify.user-profile-cache.max-size:10000}") long maxSize,
+                            @Value("${hoaxify.user-profile-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userProfiles");
+    }
+
+    // Misses are not cached, so a loader returning null leaves nothing behind for a later signup to clear.
+    public UserProfile get(String username, Function<String, UserProfile> loader) {
+        return cache.get(username, loader);
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    @EventListener
+    public void onUsersChanged(UsersChangedEvent event) {
+        cache.invalidateAll(event.getUsernames());
+    }
+}
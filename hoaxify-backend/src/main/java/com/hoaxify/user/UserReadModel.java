@@ -0,0 +1,174 @@
+package com.hoaxify.user;
+
+import com.hoaxify.user.vm.UserVM;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Every user's id, username, display name and image in a {@link UserReadModelStore}, so listing users
+ * needs neither Hibernate nor a connection. It is streamed from the database once the application is
+ * ready, takes each user saved through {@link UserService} as soon as it commits, and reloads the users
+ * named in a {@link UsersChangedEvent}, which covers writes made on other nodes.
+ *
+ * Writes that go around {@link UserService} and the change log, like SQL run by hand, are not seen until
+ * the next {@link #rebuild}, which is why the model is only built with
+ * {@code hoaxify.user-read-model.enabled=true}. Until it is loaded, {@link #page} returns null and callers
+ * go to the database.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "hoaxify.user-read-model.enabled", havingValue = "true")
+public class UserReadModel {
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final boolean offHeap;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private UserReadModelStore store;
+
+    // a rebuild in progress; writes go to it as well so they are not lost when it replaces the store
+    private UserReadModelStore building;
+
+    private boolean loaded;
+
+    public UserReadModel(UserRepository userRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                         @Value("${hoaxify.user-read-model.off-heap:false}") boolean offHeap) {
+        this.userRepository = userRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.offHeap = offHeap;
+        this.store = new UserReadModelStore(0, offHeap);
+        Gauge.builder("hoaxify.user-read-model.users", this, model -> model.read(UserReadModelStore::size))
+                .register(meterRegistry);
+        Gauge.builder("hoaxify.user-read-model.bytes", this, model -> model.read(UserReadModelStore::footprintBytes))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // a model that fails to load only costs listing its fast path, so it must not fail startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Could not load the user read model, users are listed from the database", e);
+        }
+    }
+
+    public void rebuild() {
+        UserReadModelStore fresh = new UserReadModelStore((int) Math.min(Integer.MAX_VALUE / 2, userRepository.count()), offHeap);
+        lock.writeLock().lock();
+        try {
+            building = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        boolean scanned = false;
+        try {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = userRepository.streamReadModelRows()) {
+                    rows.forEach(row -> {
+                        lock.writeLock().lock();
+                        try {
+                            // a user put during the scan is newer than its row
+                            if (fresh.findById((Integer) row[0]) == UserReadModelStore.ABSENT) {
+                                fresh.put((Integer) row[0], (String) row[1], (String) row[2], (String) row[3]);
+                            }
+                        } finally {
+                            lock.writeLock().unlock();
+                        }
+                    });
+                }
+            });
+            scanned = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                building = null;
+                if (scanned) {
+                    store = fresh;
+                    loaded = true;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("User read model loaded {} users in {} bytes", fresh.size(), fresh.footprintBytes());
+    }
+
+    // the user is already committed when this runs, so a failure here must not reach the caller; the model
+    // is marked unloaded instead and users are listed from the database until the next rebuild
+    public void put(User user) {
+        lock.writeLock().lock();
+        try {
+            store.put(user.getId(), user.getUsername(), user.getDisplayName(), user.getImage());
+            if (building != null) {
+                building.put(user.getId(), user.getUsername(), user.getDisplayName(), user.getImage());
+            }
+        } catch (RuntimeException e) {
+            loaded = false;
+            log.error("Could not put user {} in the user read model, users are listed from the database until it is rebuilt", user.getId(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onUsersChanged(UsersChangedEvent event) {
+        List<User> changed = readOnlyTransactionTemplate.execute(status -> userRepository.findByIdIn(event.getUserIds()));
+        for (User user : changed) {
+            put(user);
+        }
+    }
+
+    // ordered by id; null until loaded
+    public Page<UserVM> page(String excludedUsername, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            if (!loaded) {
+                return null;
+            }
+            int excludedRow = excludedUsername == null ? UserReadModelStore.ABSENT : store.findByUsername(excludedUsername);
+            int total = store.size() - (excludedRow == UserReadModelStore.ABSENT ? 0 : 1);
+            List<UserVM> content = pageable.isPaged()
+                    ? store.page(pageable.getOffset(), pageable.getPageSize(), excludedRow)
+                    : store.page(0, total, excludedRow);
+            return new PageImpl<>(content, pageable, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T read(Function<UserReadModelStore, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(store);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
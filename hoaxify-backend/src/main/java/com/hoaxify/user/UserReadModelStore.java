@@ -0,0 +1,349 @@
+package com.hoaxify.user;
+
+import com.hoaxify.user.vm.UserVM;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Users packed into primitive arrays and one UTF-8 byte buffer, for {@link UserReadModel}. Each user is
+ * a row: {@code ids} and {@code offsets} are indexed by row, and the record at {@code offsets[row]} holds
+ * username, display name and image, each as a varint of length + 1 (0 for null) followed by its bytes.
+ * Rows are found through two open-addressing tables holding row + 1, one keyed by id and one by
+ * username, and {@code rowsById} keeps the rows in id order for paging.
+ *
+ * An updated user gets a new record appended and the old one is left as garbage. When the buffer runs
+ * out of room, only the live records are copied to the new one, which is twice the size only if they
+ * would fill more than half of it, so updates alone never make the buffer grow. Not thread safe;
+ * {@link UserReadModel} guards it.
+ */
+final class UserReadModelStore {
+
+    static final int ABSENT = -1;
+
+    private static final int MAX_LOAD_PERCENT = 50;
+
+    private static final int MAX_LIVE_DATA_PERCENT = 50;
+
+    private final boolean offHeap;
+
+    private int size;
+
+    private int[] ids;
+
+    private int[] offsets;
+
+    private int[] usernameHashes;
+
+    private int[] rowsById;
+
+    private int[] idSlots;
+
+    private int[] usernameSlots;
+
+    private ByteBuffer data;
+
+    private long garbageBytes;
+
+    UserReadModelStore(int expectedUsers, boolean offHeap) {
+        this.offHeap = offHeap;
+        int capacity = Math.max(16, expectedUsers);
+        ids = new int[capacity];
+        offsets = new int[capacity];
+        usernameHashes = new int[capacity];
+        rowsById = new int[capacity];
+        int slots = Integer.highestOneBit(capacity * 100 / MAX_LOAD_PERCENT - 1) << 1;
+        idSlots = new int[slots];
+        usernameSlots = new int[slots];
+        data = allocate(capacity * 32);
+    }
+
+    void put(int id, String username, String displayName, String image) {
+        byte[] usernameBytes = username.getBytes(StandardCharsets.UTF_8);
+        int offset = append(usernameBytes, utf8(displayName), utf8(image));
+        int row = findById(id);
+        if (row != ABSENT) {
+            garbageBytes += recordLength(offsets[row]);
+            if (!usernameEquals(row, usernameBytes)) {
+                removeUsernameSlot(row);
+                offsets[row] = offset;
+                usernameHashes[row] = hash(usernameBytes);
+                insertUsernameSlot(row);
+            } else {
+                offsets[row] = offset;
+            }
+            return;
+        }
+        if (size == ids.length) {
+            grow();
+        }
+        row = size++;
+        ids[row] = id;
+        offsets[row] = offset;
+        usernameHashes[row] = hash(usernameBytes);
+        insertIdSlot(row);
+        insertUsernameSlot(row);
+        insertInIdOrder(row);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int findById(int id) {
+        int mask = idSlots.length - 1;
+        for (int slot = mix(id) & mask; ; slot = (slot + 1) & mask) {
+            int entry = idSlots[slot];
+            if (entry == 0) {
+                return ABSENT;
+            }
+            if (ids[entry - 1] == id) {
+                return entry - 1;
+            }
+        }
+    }
+
+    int findByUsername(String username) {
+        byte[] usernameBytes = username.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(usernameBytes);
+        int mask = usernameSlots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = usernameSlots[slot];
+            if (entry == 0) {
+                return ABSENT;
+            }
+            if (usernameHashes[entry - 1] == hash && usernameEquals(entry - 1, usernameBytes)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    // rows in id order from position offset, skipping excludedRow
+    List<UserVM> page(long offset, int limit, int excludedRow) {
+        int excludedPosition = excludedRow == ABSENT ? Integer.MAX_VALUE : positionOf(excludedRow);
+        long start = offset >= excludedPosition ? offset + 1 : offset;
+        List<UserVM> page = new ArrayList<>(limit);
+        for (long position = start; position < size && page.size() < limit; position++) {
+            if (position != excludedPosition) {
+                page.add(toVM(rowsById[(int) position]));
+            }
+        }
+        return page;
+    }
+
+    UserVM toVM(int row) {
+        int[] cursor = {offsets[row]};
+        String username = readString(cursor);
+        String displayName = readString(cursor);
+        String image = readString(cursor);
+        return new UserVM(ids[row], username, displayName, image);
+    }
+
+    // what the store holds on to, including spare capacity
+    long footprintBytes() {
+        return 4L * (ids.length + offsets.length + usernameHashes.length + rowsById.length + idSlots.length + usernameSlots.length)
+                + data.capacity();
+    }
+
+    long garbageBytes() {
+        return garbageBytes;
+    }
+
+    private int append(byte[]... fields) {
+        int needed = 0;
+        for (byte[] field : fields) {
+            needed += 5 + (field == null ? 0 : field.length);
+        }
+        if (data.remaining() < needed) {
+            long live = data.position() - garbageBytes + needed;
+            long capacity = live * 100 <= (long) data.capacity() * MAX_LIVE_DATA_PERCENT
+                    ? data.capacity()
+                    : Math.max((long) data.capacity() * 2, live);
+            if (capacity > Integer.MAX_VALUE) {
+                throw new IllegalStateException("User read model is over 2 GB of text, rebuild it or turn it off");
+            }
+            compact((int) capacity);
+        }
+        int offset = data.position();
+        for (byte[] field : fields) {
+            writeVarint(field == null ? 0 : field.length + 1);
+            if (field != null) {
+                data.put(field);
+            }
+        }
+        return offset;
+    }
+
+    // copies only the live records, so the garbage left by updates is dropped
+    private void compact(int capacity) {
+        ByteBuffer compacted = allocate(capacity);
+        for (int row = 0; row < size; row++) {
+            ByteBuffer record = data.duplicate();
+            record.limit(offsets[row] + recordLength(offsets[row]));
+            record.position(offsets[row]);
+            offsets[row] = compacted.position();
+            compacted.put(record);
+        }
+        data = compacted;
+        garbageBytes = 0;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        usernameHashes = Arrays.copyOf(usernameHashes, capacity);
+        rowsById = Arrays.copyOf(rowsById, capacity);
+        if ((long) capacity * 100 > (long) idSlots.length * MAX_LOAD_PERCENT) {
+            idSlots = new int[idSlots.length * 2];
+            usernameSlots = new int[usernameSlots.length * 2];
+            for (int row = 0; row < size; row++) {
+                insertIdSlot(row);
+                insertUsernameSlot(row);
+            }
+        }
+    }
+
+    private void insertIdSlot(int row) {
+        int mask = idSlots.length - 1;
+        int slot = mix(ids[row]) & mask;
+        while (idSlots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        idSlots[slot] = row + 1;
+    }
+
+    private void insertUsernameSlot(int row) {
+        int mask = usernameSlots.length - 1;
+        int slot = mix(usernameHashes[row]) & mask;
+        while (usernameSlots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        usernameSlots[slot] = row + 1;
+    }
+
+    // linear probing delete: pull later entries of the same cluster back so no probe chain is broken
+    private void removeUsernameSlot(int row) {
+        int mask = usernameSlots.length - 1;
+        int slot = mix(usernameHashes[row]) & mask;
+        while (usernameSlots[slot] != row + 1) {
+            slot = (slot + 1) & mask;
+        }
+        int hole = slot;
+        for (int next = (hole + 1) & mask; usernameSlots[next] != 0; next = (next + 1) & mask) {
+            int home = mix(usernameHashes[usernameSlots[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                usernameSlots[hole] = usernameSlots[next];
+                hole = next;
+            }
+        }
+        usernameSlots[hole] = 0;
+    }
+
+    // ids come from a sequence, so a new row nearly always goes at the end
+    private void insertInIdOrder(int row) {
+        int position = size - 1;
+        while (position > 0 && ids[rowsById[position - 1]] > ids[row]) {
+            position--;
+        }
+        System.arraycopy(rowsById, position, rowsById, position + 1, size - 1 - position);
+        rowsById[position] = row;
+    }
+
+    private int positionOf(int row) {
+        int id = ids[row];
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = ids[rowsById[middle]];
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private boolean usernameEquals(int row, byte[] usernameBytes) {
+        int[] cursor = {offsets[row]};
+        int length = readVarint(cursor) - 1;
+        if (length != usernameBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (data.get(cursor[0] + i) != usernameBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int recordLength(int offset) {
+        int[] cursor = {offset};
+        for (int field = 0; field < 3; field++) {
+            int length = readVarint(cursor);
+            cursor[0] += Math.max(0, length - 1);
+        }
+        return cursor[0] - offset;
+    }
+
+    private String readString(int[] cursor) {
+        int length = readVarint(cursor) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        if (data.hasArray()) {
+            System.arraycopy(data.array(), data.arrayOffset() + cursor[0], bytes, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                bytes[i] = data.get(cursor[0] + i);
+            }
+        }
+        cursor[0] += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            data.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        data.put((byte) value);
+    }
+
+    private int readVarint(int[] cursor) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data.get(cursor[0]++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int hash(byte[] bytes) {
+        return Arrays.hashCode(bytes);
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
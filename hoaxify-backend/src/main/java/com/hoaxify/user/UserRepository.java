@@ -3,10 +3,39 @@ package com.hoaxify.user;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     User findByUsername(String username);
 
+    // Pass the username through UsernameNormalizer first; the unique index on the column serves the lookup.
+    // Not read-only: called outside a transaction by UniqueUsernameValidator, which must not see a
+    // lagging replica. Callers inside a read-only transaction still read from the replica.
+    @Transactional
+    User findByNormalizedUsername(String normalizedUsername);
+
+    Optional<User> findUserById(Integer id);
+
     Page<User> findByUsernameNot(String username, Pageable page);
+
+    List<User> findByIdIn(Collection<Integer> ids);
+
+    List<User> findByUsernameIn(Collection<String> usernames);
+
+    // id, username, displayName, image as plain columns, so a full scan does not fill the persistence context
+    @Query("select u.id, u.username, u.displayName, u.image from User u order by u.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<Object[]> streamReadModelRows();
 }
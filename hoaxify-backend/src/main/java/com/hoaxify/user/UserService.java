@@ -1,35 +1,217 @@
 package com.hoaxify.user;
 
+import com.hoaxify.error.ConflictException;
+import com.hoaxify.error.NotFoundException;
+import com.hoaxify.jfr.UserPageQueryEvent;
+import com.hoaxify.tracing.Span;
+import com.hoaxify.user.vm.UserUpdateVM;
+import com.hoaxify.user.vm.UserVM;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 public class UserService {
 
+    private static final int IN_CLAUSE_CHUNK = 250;
+
     private UserRepository userRepository;
 
+    private UserChangeRepository userChangeRepository;
+
     private PasswordEncoder passwordEncoder;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    private RecentWrites recentWrites;
+
+    private UserProfileCache userProfileCache;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private TransactionTemplate transactionTemplate;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    // null unless hoaxify.user-read-model.enabled
+    private UserReadModel userReadModel;
+
+    public UserService(UserRepository userRepository, UserChangeRepository userChangeRepository, PasswordEncoder passwordEncoder,
+                       RecentWrites recentWrites, UserProfileCache userProfileCache, ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager, ObjectProvider<UserReadModel> userReadModel) {
         this.userRepository = userRepository;
+        this.userChangeRepository = userChangeRepository;
         this.passwordEncoder = passwordEncoder;
+        this.recentWrites = recentWrites;
+        this.userProfileCache = userProfileCache;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.userReadModel = userReadModel.getIfAvailable();
     }
 
     public User save(User user) {
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        try (Span span = Span.start("UserService.save")) {
+            // hash before the transaction starts so BCrypt does not hold a pooled connection
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
+            User saved;
+            try {
+                saved = transactionTemplate.execute(status -> {
+                    User inDB = userRepository.save(user);
+                    userChangeRepository.save(new UserChange(inDB));
+                    eventPublisher.publishEvent(new UserCreatedEvent(inDB));
+                    return inDB;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // the validator checked, but a concurrent signup of the same normalized name won the unique index
+                if (violatesUniqueUsername(e)) {
+                    throw new ConflictException(user.getUsername() + " is already taken");
+                }
+                throw e;
+            }
+            recentWrites.record(saved.getUsername());
+            userProfileCache.invalidate(saved.getUsername());
+            if (userReadModel != null) {
+                userReadModel.put(saved);
+            }
+            return saved;
+        }
+    }
+
+    // databases report the index under their own decoration (H2: "PUBLIC.USER_NORMALIZED_USERNAME_INDEX_2")
+    private static boolean violatesUniqueUsername(DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException)) {
+            return false;
+        }
+        String constraintName = ((ConstraintViolationException) e.getCause()).getConstraintName();
+        return constraintName != null && constraintName.toLowerCase(Locale.ROOT).contains(User.NORMALIZED_USERNAME_INDEX);
+    }
+
+    // ifMatch, when given, is the ETag the client last read; an edit based on anything older is refused
+    public UserProfile update(int id, UserUpdateVM update, String ifMatch) {
+        try (Span span = Span.start("UserService.update")) {
+            User updated;
+            try {
+                updated = transactionTemplate.execute(status -> {
+                    User inDB = userRepository.findUserById(id)
+                            .orElseThrow(() -> new NotFoundException("User " + id + " not found"));
+                    if (ifMatch != null && !"*".equals(ifMatch) && !ifMatch.equals(UserProfile.etagOf(inDB))) {
+                        throw new ConflictException("User " + id + " has changed since it was read");
+                    }
+                    if (update.getDisplayName() != null) {
+                        inDB.setDisplayName(update.getDisplayName());
+                    }
+                    if (update.getImage() != null) {
+                        inDB.setImage(update.getImage());
+                    }
+                    // other nodes drop their cached copy when UserChangePoller reads this entry
+                    userChangeRepository.save(new UserChange(inDB));
+                    return inDB;
+                });
+            } catch (OptimisticLockingFailureException e) {
+                // another update committed between our read and our write
+                throw new ConflictException("User " + id + " has changed since it was read");
+            }
+            recentWrites.record(updated.getUsername());
+            userProfileCache.invalidate(updated.getUsername());
+            if (userReadModel != null) {
+                userReadModel.put(updated);
+            }
+            return new UserProfile(updated);
+        }
+    }
+
+    public UserProfile getProfile(String username) {
+        try (Span span = Span.start("UserService.getProfile")) {
+            UserProfile profile = userProfileCache.get(username, this::loadProfile);
+            if (profile == null) {
+                throw new NotFoundException(username + " not found");
+            }
+            return profile;
+        }
+    }
+
+    private UserProfile loadProfile(String username) {
+        // a profile cached from a lagging replica would outlive the lag, so recent writers load from the primary
+        TransactionTemplate transaction = recentWrites.contains(username) ? transactionTemplate : readOnlyTransactionTemplate;
+        User inDB = transaction.execute(status -> userRepository.findByUsername(username));
+        return inDB == null ? null : new UserProfile(inDB);
+    }
+
+    public Page<UserVM> getUsers(User loggedInUser, Pageable pageable) {
+        UserPageQueryEvent event = UserPageQueryEvent.beginIfRecording();
+        try (Span span = Span.start("UserService.getUsers")) {
+            String excludedUsername = loggedInUser == null ? null : loggedInUser.getUsername();
+            // the read model only knows id order
+            if (userReadModel != null && pageable.getSort().isUnsorted()) {
+                Page<UserVM> page = userReadModel.page(excludedUsername, pageable);
+                if (page != null) {
+                    span.tag("source", "read-model");
+                    return commit(event, page, "read-model");
+                }
+            }
+            return commit(event, readOnlyTransactionTemplate.execute(status -> {
+                Page<User> users = excludedUsername != null
+                        ? userRepository.findByUsernameNot(excludedUsername, pageable)
+                        : userRepository.findAll(pageable);
+                return users.map(UserVM::new);
+            }), "database");
+        }
+    }
+
+    private static Page<UserVM> commit(UserPageQueryEvent event, Page<UserVM> page, String source) {
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.page = page.getNumber();
+                event.size = page.getSize();
+                event.rows = page.getNumberOfElements();
+                event.source = source;
+                event.commit();
+            }
+        }
+        return page;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Integer, User> getUsersByIds(Collection<Integer> ids) {
+        try (Span span = Span.start("UserService.getUsersByIds").tag("ids", ids.size())) {
+            return findInChunks(ids, userRepository::findByIdIn, User::getId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, User> getUsersByUsernames(Collection<String> usernames) {
+        try (Span span = Span.start("UserService.getUsersByUsernames").tag("usernames", usernames.size())) {
+            return findInChunks(usernames, userRepository::findByUsernameIn, User::getUsername);
+        }
     }
 
-    public Page<User> getUsers(User loggedInUser, Pageable pageable) {
-        if(loggedInUser != null) {
-            return userRepository.findByUsernameNot(loggedInUser.getUsername(), pageable);
+    private <K> Map<K, User> findInChunks(Collection<K> keys, Function<List<K>, List<User>> query, Function<User, K> keyOf) {
+        List<K> keyList = new ArrayList<>(keys);
+        Map<K, User> users = new HashMap<>();
+        for (int from = 0; from < keyList.size(); from += IN_CLAUSE_CHUNK) {
+            List<K> chunk = keyList.subList(from, Math.min(from + IN_CLAUSE_CHUNK, keyList.size()));
+            for (User user : query.apply(chunk)) {
+                users.put(keyOf.apply(user), user);
+            }
         }
-        return userRepository.findAll(pageable);
+        return users;
     }
 }
@@ -0,0 +1,27 @@
+package com.hoaxify.user;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * The form usernames are compared in: NFKC, then case folded, then NFKC again, an approximation of
+ * Unicode's NFKC_Casefold. "User1", "user1" and "ＵＳＥＲ１" all normalize to "user1", and "Straße"
+ * matches "STRASSE".
+ *
+ * The JDK has no full case folding; upper then lower case in the root locale folds the expanding cases
+ * such as ß and the final sigma, and never depends on the server's locale.
+ */
+public final class UsernameNormalizer {
+
+    private UsernameNormalizer() {
+    }
+
+    public static String normalize(String username) {
+        if (username == null) {
+            return null;
+        }
+        String composed = Normalizer.normalize(username, Normalizer.Form.NFKC);
+        String folded = composed.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+        return Normalizer.normalize(folded, Normalizer.Form.NFKC);
+    }
+}
@@ -0,0 +1,33 @@
+package com.hoaxify.user;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Usernames accepted by {@link SignupPipeline} whose user is not committed yet. {@link UniqueUsernameValidator}
+ * checks here before the database, so a name cannot be signed up twice while the first signup is queued.
+ * A reservation is dropped once the insert has committed or failed. Names are held normalized, so a
+ * reservation also covers every other spelling of the same name.
+ *
+ * Reservations are local to this node; two nodes accepting the same name at once are only told apart
+ * by the database.
+ */
+@Component
+public class UsernameReservations {
+
+    private final Set<String> reserved = ConcurrentHashMap.newKeySet();
+
+    public boolean reserve(String username) {
+        return reserved.add(UsernameNormalizer.normalize(username));
+    }
+
+    public void release(String username) {
+        reserved.remove(UsernameNormalizer.normalize(username));
+    }
+
+    public boolean isReserved(String username) {
+        return reserved.contains(UsernameNormalizer.normalize(username));
+    }
+}
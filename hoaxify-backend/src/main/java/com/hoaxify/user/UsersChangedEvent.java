@@ -0,0 +1,13 @@
+package com.hoaxify.user;
+
+import lombok.Value;
+
+import java.util.Set;
+
+@Value
+public class UsersChangedEvent {
+
+    Set<Integer> userIds;
+
+    Set<String> usernames;
+}
@@ -0,0 +1,33 @@
+package com.hoaxify.user.vm;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SignupStatus {
+
+    public enum State {
+        PENDING, SAVED, FAILED
+    }
+
+    String id;
+
+    State state;
+
+    Integer userId;
+
+    String message;
+
+    public static SignupStatus pending(String id) {
+        return new SignupStatus(id, State.PENDING, null, null);
+    }
+
+    public static SignupStatus saved(String id, int userId) {
+        return new SignupStatus(id, State.SAVED, userId, null);
+    }
+
+    public static SignupStatus failed(String id, String message) {
+        return new SignupStatus(id, State.FAILED, null, message);
+    }
+}
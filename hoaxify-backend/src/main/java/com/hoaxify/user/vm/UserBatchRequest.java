@@ -0,0 +1,28 @@
+package com.hoaxify.user.vm;
+
+import lombok.Data;
+
+import javax.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class UserBatchRequest {
+
+    public static final int MAX_KEYS = 500;
+
+    @Size(max = MAX_KEYS, message = "{hoaxify.constraints.batch.Size.message}")
+    private List<Integer> ids = new ArrayList<>();
+
+    @Size(max = MAX_KEYS, message = "{hoaxify.constraints.batch.Size.message}")
+    private List<String> usernames = new ArrayList<>();
+
+    // an explicit null asks for nothing, like leaving the field out
+    public void setIds(List<Integer> ids) {
+        this.ids = ids == null ? new ArrayList<>() : ids;
+    }
+
+    public void setUsernames(List<String> usernames) {
+        this.usernames = usernames == null ? new ArrayList<>() : usernames;
+    }
+}
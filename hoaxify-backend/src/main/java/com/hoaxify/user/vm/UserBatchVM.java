@@ -0,0 +1,16 @@
+package com.hoaxify.user.vm;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class UserBatchVM {
+
+    private List<UserVM> users = new ArrayList<>();
+
+    private List<Integer> missingIds = new ArrayList<>();
+
+    private List<String> missingUsernames = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package com.hoaxify.user.vm;
+
+import lombok.Data;
+
+import javax.validation.constraints.Size;
+
+// null leaves a field as it is
+@Data
+public class UserUpdateVM {
+
+    @Size(min = 4, max = 255)
+    private String displayName;
+
+    @Size(max = 255)
+    private String image;
+}
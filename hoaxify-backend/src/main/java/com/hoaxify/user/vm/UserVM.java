@@ -1,9 +1,11 @@
 package com.hoaxify.user.vm;
 
 import com.hoaxify.user.User;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 
 @Data
+@AllArgsConstructor
 public class UserVM {
 
     private long id;
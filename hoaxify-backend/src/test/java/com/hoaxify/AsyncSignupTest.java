@@ -0,0 +1,119 @@
+package com.hoaxify;
+
+import com.hoaxify.error.ApiError;
+import com.hoaxify.user.User;
+import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UsernameReservations;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class AsyncSignupTest {
+
+    private static final String API_1_0_USERS = "/api/1.0/users";
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UsernameReservations usernameReservations;
+
+    List<String> accepted = new ArrayList<>();
+
+    @Before
+    public void cleanUp() {
+        userRepository.deleteAll();
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+    }
+
+    // every accepted signup lands before the next test cleans up, or a late insert takes its name
+    @After
+    public void awaitAcceptedSignups() {
+        for (String statusPath : accepted) {
+            getStatus(statusPath + "?wait=10");
+        }
+        usernameReservations.release("test-user");
+    }
+
+    @Test
+    public void postUser_whenRespondAsyncIsPreferred_receiveAcceptedWithStatusLocation() {
+        ResponseEntity<Map<String, Object>> response = postAsyncSignup(TestUtil.createValidUser());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getHeaders().getLocation().getPath()).isEqualTo("/api/1.0/signups/" + response.getBody().get("id"));
+        assertThat(response.getBody().get("state")).isEqualTo("PENDING");
+    }
+
+    @Test
+    public void getSignupStatus_whenSignupCompletes_receiveSavedUserId() {
+        ResponseEntity<Map<String, Object>> accepted = postAsyncSignup(TestUtil.createValidUser());
+
+        Map<String, Object> status = getStatus(accepted.getHeaders().getLocation().getPath() + "?wait=10").getBody();
+
+        User inDB = userRepository.findByUsername("test-user");
+        assertThat(status.get("state")).isEqualTo("SAVED");
+        assertThat(status.get("userId")).isEqualTo(inDB.getId());
+    }
+
+    @Test
+    public void getSignupStatus_whenIdIsUnknown_receiveNotFound() {
+        ResponseEntity<Map<String, Object>> response = getStatus("/api/1.0/signups/unknown-id");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    public void postUser_whenUsernameIsReservedByAsyncSignup_receiveDuplicateUsernameError() {
+        usernameReservations.reserve("test-user");
+
+        ResponseEntity<ApiError> response = testRestTemplate.postForEntity(API_1_0_USERS, TestUtil.createValidUser(), ApiError.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody().getValidationErrors().get("username")).isEqualTo("This name is in use");
+    }
+
+    @Test
+    public void postUser_whenRespondAsyncIsNotPreferred_receiveOk() {
+        ResponseEntity<Object> response = testRestTemplate.postForEntity(API_1_0_USERS, TestUtil.createValidUser(), Object.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private ResponseEntity<Map<String, Object>> postAsyncSignup(User user) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Prefer", "respond-async");
+        ResponseEntity<Map<String, Object>> response = testRestTemplate.exchange(API_1_0_USERS, HttpMethod.POST, new HttpEntity<>(user, headers), new ParameterizedTypeReference<>() {});
+        if (response.getStatusCode() == HttpStatus.ACCEPTED) {
+            accepted.add(response.getHeaders().getLocation().getPath());
+        }
+        return response;
+    }
+
+    private ResponseEntity<Map<String, Object>> getStatus(String path) {
+        return testRestTemplate.exchange(path, HttpMethod.GET, null, new ParameterizedTypeReference<>() {});
+    }
+}
@@ -0,0 +1,132 @@
+package com.hoaxify;
+
+import com.hoaxify.jfr.FlightRecordingEndpoint;
+import com.hoaxify.jfr.UsernameHash;
+import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UserService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "management.endpoints.web.exposure.include=jfr",
+        "hoaxify.login-rate-limit.username.capacity=1000"
+})
+@ActiveProfiles("test")
+public class FlightRecordingTest {
+
+    private static final String API_JFR = "/actuator/jfr";
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    FlightRecordingEndpoint flightRecordingEndpoint;
+
+    @Before
+    public void cleanUp() {
+        userRepository.deleteAll();
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+    }
+
+    @After
+    public void stopRecording() throws Exception {
+        flightRecordingEndpoint.control("stop", null);
+    }
+
+    @Test
+    public void postStart_whenNotRecording_startsBoundedRecording() {
+        ResponseEntity<Map> response = testRestTemplate.postForEntity(API_JFR + "/start", Map.of(), Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().get("state")).isEqualTo("RUNNING");
+        assertThat(response.getBody().get("maxAge")).isEqualTo("PT10M");
+    }
+
+    @Test
+    public void postStart_whenAlreadyRecording_receiveBadRequest() {
+        testRestTemplate.postForEntity(API_JFR + "/start", Map.of(), Map.class);
+
+        ResponseEntity<Map> response = testRestTemplate.postForEntity(API_JFR + "/start", Map.of(), Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void postStart_withUnknownSettings_receiveBadRequest() {
+        ResponseEntity<Map> response = testRestTemplate.postForEntity(API_JFR + "/start", Map.of("settings", "everything"), Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void getDump_afterLoginSignupAndListing_containsHoaxifyEvents() throws Exception {
+        userService.save(TestUtil.createValidUser("user1"));
+        testRestTemplate.postForEntity(API_JFR + "/start", Map.of(), Map.class);
+
+        testRestTemplate.postForEntity("/api/1.0/users", TestUtil.createValidUser("user1"), Object.class);
+        testRestTemplate.getForEntity("/api/1.0/users?page=0&size=5", Object.class);
+        testRestTemplate.getRestTemplate().getInterceptors().add(new BasicAuthenticationInterceptor("user1", "Wr0ngPassword"));
+        testRestTemplate.postForEntity("/api/1.0/login", null, Object.class);
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+
+        ResponseEntity<byte[]> dump = testRestTemplate.getForEntity(API_JFR + "/dump", byte[].class);
+
+        assertThat(dump.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Path file = Files.createTempFile("flight-recording-test", ".jfr");
+        try {
+            Files.write(file, dump.getBody());
+            Map<String, RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().startsWith("com.hoaxify."))
+                    .collect(Collectors.toMap(event -> event.getEventType().getName(), event -> event, (first, second) -> first));
+
+            RecordedEvent auth = events.get("com.hoaxify.AuthAttempt");
+            assertThat(auth.getString("outcome")).isEqualTo("BAD_CREDENTIALS");
+            assertThat(auth.getString("usernameHash")).isEqualTo(UsernameHash.of("user1"));
+            assertThat(auth.getDuration("passwordCheckDuration")).isPositive();
+
+            RecordedEvent page = events.get("com.hoaxify.UserPageQuery");
+            assertThat(page.getInt("size")).isEqualTo(5);
+            assertThat(page.getInt("rows")).isEqualTo(1);
+            assertThat(page.getString("source")).isEqualTo("database");
+
+            assertThat(events.get("com.hoaxify.SignupValidation").getString("outcome")).isEqualTo("TAKEN");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void getDump_withUnknownAction_receiveNotFound() {
+        testRestTemplate.postForEntity(API_JFR + "/start", Map.of(), Map.class);
+
+        ResponseEntity<byte[]> response = testRestTemplate.getForEntity(API_JFR + "/snapshot", byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
@@ -0,0 +1,163 @@
+package com.hoaxify;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class FrontendResourceTest {
+
+    private static final String BUNDLE = "static/js/main.3f2a9c1e.chunk.js";
+
+    private static final byte[] BUNDLE_SOURCE = "console.log('hoaxify');".getBytes(StandardCharsets.UTF_8);
+
+    // the server only picks the file, so any bytes stand in for a brotli stream
+    private static final byte[] BUNDLE_BROTLI = {11, 7, 42, 1, 2, 3};
+
+    private static final byte[] INDEX = "<!doctype html><div id=\"root\"></div>".getBytes(StandardCharsets.UTF_8);
+
+    @ClassRule
+    public static TemporaryFolder build = new TemporaryFolder();
+
+    @LocalServerPort
+    int port;
+
+    TestRestTemplate testRestTemplate;
+
+    @DynamicPropertySource
+    static void frontendLocation(DynamicPropertyRegistry registry) {
+        registry.add("hoaxify.frontend.location", () -> build.getRoot().toURI().toString());
+    }
+
+    @BeforeClass
+    public static void writeBuild() throws IOException {
+        write("index.html", INDEX);
+        write("index.html.gz", gzip(INDEX));
+        write(BUNDLE, BUNDLE_SOURCE);
+        write(BUNDLE + ".gz", gzip(BUNDLE_SOURCE));
+        write(BUNDLE + ".br", BUNDLE_BROTLI);
+    }
+
+    // the default Apache client decodes gzip itself and drops Content-Encoding
+    @Before
+    public void setUp() {
+        testRestTemplate = new TestRestTemplate(new RestTemplateBuilder()
+                .rootUri("http://localhost:" + port)
+                .requestFactory(SimpleClientHttpRequestFactory::new));
+    }
+
+    @Test
+    public void getBundle_whenClientAcceptsBrotli_receivesPrecompressedBrotliVariant() {
+        ResponseEntity<byte[]> response = get("/" + BUNDLE, "br, gzip");
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("br");
+        assertThat(response.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getBody()).isEqualTo(BUNDLE_BROTLI);
+    }
+
+    @Test
+    public void getBundle_whenClientOnlyAcceptsGzip_receivesPrecompressedGzipVariant() throws IOException {
+        ResponseEntity<byte[]> response = get("/" + BUNDLE, "gzip");
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getBody()).isEqualTo(gzip(BUNDLE_SOURCE));
+    }
+
+    @Test
+    public void getBundle_whenClientAcceptsNoEncoding_receivesOriginal() {
+        ResponseEntity<byte[]> response = get("/" + BUNDLE, "identity");
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.valueOf("application/javascript"))).isTrue();
+        assertThat(response.getBody()).isEqualTo(BUNDLE_SOURCE);
+    }
+
+    @Test
+    public void getBundle_receivesImmutableCacheControl() {
+        ResponseEntity<byte[]> response = get("/" + BUNDLE, "br");
+
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("max-age=31536000, public, immutable");
+    }
+
+    @Test
+    public void getBundle_whenFileDoesNotExist_receivesNotFound() {
+        ResponseEntity<byte[]> response = get("/static/js/main.00000000.chunk.js", "br");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    public void getRoot_receivesIndexThatIsRevalidated() {
+        ResponseEntity<byte[]> response = get("/", "identity");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.TEXT_HTML)).isTrue();
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache");
+        assertThat(response.getBody()).isEqualTo(INDEX);
+    }
+
+    @Test
+    public void getClientRoute_receivesPrecompressedIndex() throws IOException {
+        ResponseEntity<byte[]> response = get("/user/user1", "gzip");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getBody()).isEqualTo(gzip(INDEX));
+    }
+
+    @Test
+    public void getUnknownApiPath_receivesNotFoundInsteadOfIndex() {
+        ResponseEntity<byte[]> response = get("/api/1.0/does-not-exist", "identity");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private ResponseEntity<byte[]> get(String path, String acceptEncoding) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return testRestTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+
+    private static void write(String path, byte[] content) throws IOException {
+        File file = new File(build.getRoot(), path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content);
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        }
+        return bytes.toByteArray();
+    }
+}
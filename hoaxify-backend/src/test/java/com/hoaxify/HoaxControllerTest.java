@@ -0,0 +1,222 @@
+package com.hoaxify;
+
+import com.hoaxify.error.ApiError;
+import com.hoaxify.hoax.Hoax;
+import com.hoaxify.hoax.HoaxFeedWindow;
+import com.hoaxify.hoax.HoaxRepository;
+import com.hoaxify.hoax.HoaxWriteBehind;
+import com.hoaxify.user.User;
+import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UserService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "hoaxify.hoax-write-behind.max-delay=10ms",
+        "hoaxify.hoax-feed.window-size=5",
+        // every post authenticates, more often than the login rate limit allows one user
+        "hoaxify.login-rate-limit.username.capacity=1000"
+})
+@ActiveProfiles("test")
+public class HoaxControllerTest {
+
+    private static final String API_1_0_HOAXES = "/api/1.0/hoaxes";
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    HoaxRepository hoaxRepository;
+
+    @Autowired
+    HoaxWriteBehind hoaxWriteBehind;
+
+    @Autowired
+    HoaxFeedWindow hoaxFeedWindow;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void cleanup() {
+        hoaxRepository.deleteAll();
+        userRepository.deleteAll();
+        hoaxFeedWindow.rebuild();
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+    }
+
+    // other test classes delete users, which the hoaxes reference
+    @After
+    public void cleanupAfter() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (hoaxWriteBehind.getPending() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        hoaxRepository.deleteAll();
+    }
+
+    @Test
+    public void postHoax_whenHoaxIsValidAndUserIsAuthorized_receiveAccepted() {
+        userService.save(TestUtil.createValidUser("user1"));
+        authenticate("user1");
+
+        ResponseEntity<Object> response = postHoax(TestUtil.createValidHoax(), Object.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+    }
+
+    @Test
+    public void postHoax_whenHoaxIsValidAndUserIsUnauthorized_receiveUnauthorized() {
+        ResponseEntity<Object> response = postHoax(TestUtil.createValidHoax(), Object.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    public void postHoax_whenHoaxIsValidAndUserIsAuthorized_hoaxSavedToDatabase() throws InterruptedException {
+        userService.save(TestUtil.createValidUser("user1"));
+        authenticate("user1");
+
+        postHoax(TestUtil.createValidHoax(), Object.class);
+
+        assertThat(awaitHoaxCount(1)).isTrue();
+    }
+
+    @Test
+    public void postHoax_whenHoaxIsValidAndUserIsAuthorized_hoaxSavedWithAuthenticatedUserAndTimestamp() throws InterruptedException {
+        User user = userService.save(TestUtil.createValidUser("user1"));
+        authenticate("user1");
+
+        postHoax(TestUtil.createValidHoax(), Object.class);
+
+        awaitHoaxCount(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT user_id FROM hoax", Integer.class)).isEqualTo(user.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT timestamp FROM hoax", Long.class)).isPositive();
+    }
+
+    @Test
+    public void postHoax_whenHoaxContentIsLessThan10Characters_receiveBadRequestWithValidationError() {
+        userService.save(TestUtil.createValidUser("user1"));
+        authenticate("user1");
+        Hoax hoax = new Hoax();
+        hoax.setContent("123456789");
+
+        ResponseEntity<ApiError> response = postHoax(hoax, ApiError.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody().getValidationErrors()).containsKey("content");
+    }
+
+    @Test
+    public void postHoax_whenHoaxContentIsNull_receiveBadRequest() {
+        userService.save(TestUtil.createValidUser("user1"));
+        authenticate("user1");
+
+        ResponseEntity<Object> response = postHoax(new Hoax(), Object.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void getHoaxes_whenThereAreNoHoaxes_receiveEmptyList() {
+        ResponseEntity<List<Map<String, Object>>> response = getHoaxes("");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEmpty();
+    }
+
+    @Test
+    public void getHoaxes_whenHoaxesArePosted_receiveNewestFirstWithAuthor() throws InterruptedException {
+        postHoaxes("user1", 3);
+
+        ResponseEntity<List<Map<String, Object>>> response = getHoaxes("");
+
+        assertThat(response.getBody()).extracting(hoax -> hoax.get("content"))
+                .containsExactly("hoax number 3 of user1", "hoax number 2 of user1", "hoax number 1 of user1");
+        assertThat(((Map<String, Object>) response.getBody().get(0).get("user")).get("username")).isEqualTo("user1");
+    }
+
+    @Test
+    public void getHoaxes_withBefore_receiveOlderHoaxes() throws InterruptedException {
+        postHoaxes("user1", 3);
+        long newest = ((Number) getHoaxes("?size=1").getBody().get(0).get("id")).longValue();
+
+        ResponseEntity<List<Map<String, Object>>> response = getHoaxes("?before=" + newest);
+
+        assertThat(response.getBody()).extracting(hoax -> hoax.get("content"))
+                .containsExactly("hoax number 2 of user1", "hoax number 1 of user1");
+    }
+
+    @Test
+    public void getHoaxes_whenPageReachesPastTheWindow_receiveOlderHoaxesFromDatabase() throws InterruptedException {
+        postHoaxes("user1", 8);
+
+        List<Map<String, Object>> firstPage = getHoaxes("?size=4").getBody();
+        long oldestOnFirstPage = ((Number) firstPage.get(3).get("id")).longValue();
+        List<Map<String, Object>> secondPage = getHoaxes("?size=4&before=" + oldestOnFirstPage).getBody();
+
+        assertThat(secondPage).extracting(hoax -> hoax.get("content"))
+                .containsExactly("hoax number 4 of user1", "hoax number 3 of user1", "hoax number 2 of user1", "hoax number 1 of user1");
+        assertThat(((Map<String, Object>) secondPage.get(0).get("user")).get("username")).isEqualTo("user1");
+    }
+
+    private void postHoaxes(String username, int count) throws InterruptedException {
+        userService.save(TestUtil.createValidUser(username));
+        authenticate(username);
+        for (int i = 1; i <= count; i++) {
+            Hoax hoax = new Hoax();
+            hoax.setContent("hoax number " + i + " of " + username);
+            postHoax(hoax, Object.class);
+            // posts one at a time so ids follow posting order
+            awaitHoaxCount(i);
+        }
+    }
+
+    private ResponseEntity<List<Map<String, Object>>> getHoaxes(String query) {
+        return testRestTemplate.exchange(API_1_0_HOAXES + query, HttpMethod.GET, null, new ParameterizedTypeReference<>() {});
+    }
+
+    private <T> ResponseEntity<T> postHoax(Hoax hoax, Class<T> responseType) {
+        return testRestTemplate.postForEntity(API_1_0_HOAXES, hoax, responseType);
+    }
+
+    private void authenticate(String username) {
+        testRestTemplate.getRestTemplate().getInterceptors().add(new BasicAuthenticationInterceptor(username, "P4ssword"));
+    }
+
+    private boolean awaitHoaxCount(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (hoaxRepository.count() == expected) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+}
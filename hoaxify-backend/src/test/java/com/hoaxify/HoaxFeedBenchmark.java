@@ -0,0 +1,88 @@
+package com.hoaxify;
+
+import com.hoaxify.hoax.HoaxFeedWindow;
+import com.hoaxify.hoax.HoaxRepository;
+import com.hoaxify.hoax.HoaxService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Not a test: run the main method (optionally with a row count) to measure feed latency on a large hoax table.
+// The rows go to an H2 file database under java.io.tmpdir, which is kept between runs.
+public class HoaxFeedBenchmark {
+
+    private static final int USERS = 1_000;
+
+    private static final int INSERT_CHUNK = 10_000;
+
+    public static void main(String[] args) {
+        long rows = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        String url = "jdbc:h2:file:" + System.getProperty("java.io.tmpdir") + "/hoaxify-feed-benchmark-" + rows;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HoaxifyApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=warn",
+                        "spring.datasource.url=" + url,
+                        "spring.jpa.hibernate.ddl-auto=update")
+                .run()) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            if (populate(jdbcTemplate, rows)) {
+                // the window was loaded from the empty table at startup
+                context.getBean(HoaxFeedWindow.class).rebuild();
+            }
+            HoaxService hoaxService = context.getBean(HoaxService.class);
+            HoaxRepository hoaxRepository = context.getBean(HoaxRepository.class);
+
+            measure("first page, from the window", 20_000, () -> hoaxService.getFeed(null, 10));
+            measure("page inside the window", 20_000, () -> hoaxService.getFeed(rows - ThreadLocalRandom.current().nextLong(900), 10));
+            measure("deep page, keyset query", 5_000, () -> hoaxService.getFeed(1 + ThreadLocalRandom.current().nextLong(rows), 10));
+            measure("deep page, offset query for comparison", 5,
+                    () -> hoaxRepository.findAll(PageRequest.of((int) (rows / 20), 10, Sort.by(Sort.Direction.DESC, "id"))));
+        }
+    }
+
+    private static boolean populate(JdbcTemplate jdbcTemplate, long rows) {
+        Long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM hoax", Long.class);
+        if (existing == rows) {
+            return false;
+        }
+        jdbcTemplate.update("DELETE FROM hoax");
+        jdbcTemplate.update("DELETE FROM user");
+        List<Object[]> users = new ArrayList<>();
+        for (int id = 1; id <= USERS; id++) {
+            users.add(new Object[]{id, "feed-user-" + id, "feed-display-" + id, "x", 0L});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO user (id, username, display_name, password, updated_at) VALUES (?, ?, ?, ?, ?)", users);
+        long start = System.nanoTime();
+        for (long from = 1; from <= rows; from += INSERT_CHUNK) {
+            List<Object[]> hoaxes = new ArrayList<>(INSERT_CHUNK);
+            for (long id = from; id < from + INSERT_CHUNK && id <= rows; id++) {
+                hoaxes.add(new Object[]{id, "hoax number " + id + " for the feed benchmark", id, 1 + id % USERS});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO hoax (id, content, timestamp, user_id) VALUES (?, ?, ?, ?)", hoaxes);
+        }
+        System.out.printf("inserted %,d hoaxes in %.0f s%n", rows, (System.nanoTime() - start) / 1e9);
+        return true;
+    }
+
+    private static void measure(String name, int calls, Runnable call) {
+        for (int i = 0; i < Math.min(calls, 1_000); i++) {
+            call.run();
+        }
+        long[] nanos = new long[calls];
+        for (int i = 0; i < calls; i++) {
+            long start = System.nanoTime();
+            call.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%s: p50 %.3f ms, p99 %.3f ms over %,d calls%n",
+                name, nanos[calls / 2] / 1e6, nanos[(int) (calls * 0.99)] / 1e6, calls);
+    }
+}
@@ -0,0 +1,97 @@
+package com.hoaxify;
+
+import com.hoaxify.hoax.Hoax;
+import com.hoaxify.hoax.HoaxRepository;
+import com.hoaxify.hoax.HoaxService;
+import com.hoaxify.hoax.HoaxWriteBehind;
+import com.hoaxify.user.User;
+import com.hoaxify.user.UserService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Not a test: run the main method to compare sustained hoax posts per second, write-behind versus a commit per post.
+public class HoaxPostBenchmark {
+
+    private static final int THREADS = 16;
+
+    private static final long DURATION_MILLIS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HoaxifyApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=warn")
+                .run(args)) {
+            HoaxRepository hoaxRepository = context.getBean(HoaxRepository.class);
+            HoaxService hoaxService = context.getBean(HoaxService.class);
+            HoaxWriteBehind writeBehind = context.getBean(HoaxWriteBehind.class);
+            User user = context.getBean(UserService.class).save(TestUtil.createValidUser("bench-user"));
+
+            for (int round = 1; round <= 2; round++) {
+                hoaxRepository.deleteAllInBatch();
+                report("commit per post", round, run(hoax -> {
+                    hoax.setUser(user);
+                    hoaxRepository.save(hoax);
+                    return true;
+                }), 0);
+
+                hoaxRepository.deleteAllInBatch();
+                AtomicLong refused = new AtomicLong();
+                long start = System.nanoTime();
+                long accepted = run(hoax -> {
+                    if (hoaxService.submit(hoax, user)) {
+                        return true;
+                    }
+                    refused.incrementAndGet();
+                    // a refused client is told to retry later; spinning here would starve the writer
+                    sleep();
+                    return false;
+                });
+                while (writeBehind.getPending() > 0) {
+                    Thread.sleep(1);
+                }
+                long drainedMillis = (System.nanoTime() - start) / 1_000_000 - DURATION_MILLIS;
+                report("write-behind", round, accepted, refused.get());
+                System.out.printf("    %,d rows in table, queue drained %d ms after the last post%n", hoaxRepository.count(), drainedMillis);
+            }
+        }
+    }
+
+    private static long run(Function<Hoax, Boolean> post) throws InterruptedException {
+        AtomicLong posted = new AtomicLong();
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    if (post.apply(TestUtil.createValidHoax())) {
+                        posted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return posted.get();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void report(String mode, int round, long posted, long refused) {
+        System.out.printf("round %d, %s: %,d posts in %d s, %,.0f posts/s, %,d refused with 503%n",
+                round, mode, posted, DURATION_MILLIS / 1000, posted * 1000.0 / DURATION_MILLIS, refused);
+    }
+}
@@ -0,0 +1,139 @@
+package com.hoaxify;
+
+import com.hoaxify.user.User;
+import com.hoaxify.user.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class IdempotencyKeyTest {
+
+    private static final String API_1_0_USERS = "/api/1.0/users";
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @LocalServerPort
+    int port;
+
+    @Before
+    public void cleanUp() {
+        userRepository.deleteAll();
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+    }
+
+    @Test
+    public void postUser_whenRetriedWithSameKey_receivesFirstResponseReplayed() {
+        String key = UUID.randomUUID().toString();
+        ResponseEntity<String> first = postSignup(TestUtil.createValidUser(), key);
+
+        ResponseEntity<String> retry = postSignup(TestUtil.createValidUser(), key);
+
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+        assertThat(retry.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(first.getHeaders().containsKey("Idempotent-Replayed")).isFalse();
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void postUser_whenRetriedWithoutKey_receivesDuplicateUsernameError() {
+        postSignup(TestUtil.createValidUser(), null);
+
+        ResponseEntity<String> retry = postSignup(TestUtil.createValidUser(), null);
+
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void postUser_whenKeyIsReusedWithDifferentBody_receiveUnprocessableEntity() {
+        String key = UUID.randomUUID().toString();
+        postSignup(TestUtil.createValidUser(), key);
+
+        ResponseEntity<String> response = postSignup(TestUtil.createValidUser("other-user"), key);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void postUser_whenFirstResponseIsValidationError_replaysValidationError() {
+        String key = UUID.randomUUID().toString();
+        User invalid = TestUtil.createValidUser();
+        invalid.setPassword("short");
+        ResponseEntity<String> first = postSignup(invalid, key);
+
+        ResponseEntity<String> retry = postSignup(invalid, key);
+
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+    }
+
+    @Test
+    public void postUser_whenDuplicatesAreInFlightTogether_savesOnceAndAllReceiveOk() {
+        String key = UUID.randomUUID().toString();
+        List<CompletableFuture<ResponseEntity<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            responses.add(CompletableFuture.supplyAsync(() -> postSignup(TestUtil.createValidUser(), key)));
+        }
+
+        for (CompletableFuture<ResponseEntity<String>> response : responses) {
+            assertThat(response.join().getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void postUser_whenChunkedBodyExceedsLimit_receivePayloadTooLarge() {
+        SimpleClientHttpRequestFactory streaming = new SimpleClientHttpRequestFactory();
+        streaming.setBufferRequestBody(false);
+        TestRestTemplate chunked = new TestRestTemplate(new RestTemplateBuilder()
+                .rootUri("http://localhost:" + port)
+                .requestFactory(() -> streaming));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", UUID.randomUUID().toString());
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        // no length is known up front, so the body goes out chunked without a Content-Length
+        InputStreamResource body = new InputStreamResource(new ByteArrayInputStream(new byte[(1 << 20) + 1024]));
+
+        ResponseEntity<String> response = chunked.postForEntity(API_1_0_USERS, new HttpEntity<>(body, headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    private ResponseEntity<String> postSignup(User user, String key) {
+        HttpHeaders headers = new HttpHeaders();
+        if (key != null) {
+            headers.set("Idempotency-Key", key);
+        }
+        return testRestTemplate.postForEntity(API_1_0_USERS, new HttpEntity<>(user, headers), String.class);
+    }
+}
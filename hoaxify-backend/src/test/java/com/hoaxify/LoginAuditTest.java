@@ -0,0 +1,97 @@
+package com.hoaxify;
+
+import com.hoaxify.audit.LoginAttempt;
+import com.hoaxify.audit.LoginAuditReader;
+import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UserService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class LoginAuditTest {
+
+    private static final String API_1_0_LOGIN = "/api/1.0/login";
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserService userService;
+
+    @Value("${hoaxify.login-audit.directory}")
+    String auditDirectory;
+
+    long testStart;
+
+    @Before
+    public void cleanup() {
+        userRepository.deleteAll();
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+        testStart = System.currentTimeMillis();
+    }
+
+    @Test
+    public void postLogin_withValidCredentials_recordsSuccessfulAttempt() throws Exception {
+        userService.save(TestUtil.createValidUser("audited-user"));
+
+        login("audited-user", "P4ssword");
+
+        List<LoginAttempt> attempts = awaitAttempts("audited-user");
+        assertThat(attempts).extracting(LoginAttempt::getOutcome).containsExactly(LoginAttempt.Outcome.SUCCESS);
+        assertThat(attempts.get(0).getRemoteAddress()).isEqualTo("127.0.0.1");
+    }
+
+    @Test
+    public void postLogin_withWrongPassword_recordsBadCredentials() throws Exception {
+        userService.save(TestUtil.createValidUser("audited-user"));
+
+        login("audited-user", "Wr0ngPassword");
+
+        assertThat(awaitAttempts("audited-user")).extracting(LoginAttempt::getOutcome).containsExactly(LoginAttempt.Outcome.BAD_CREDENTIALS);
+    }
+
+    @Test
+    public void postLogin_withUnknownUser_recordsBadCredentials() throws Exception {
+        login("unknown-audited-user", "P4ssword");
+
+        assertThat(awaitAttempts("unknown-audited-user")).extracting(LoginAttempt::getOutcome).containsExactly(LoginAttempt.Outcome.BAD_CREDENTIALS);
+    }
+
+    private void login(String username, String password) {
+        testRestTemplate.getRestTemplate().getInterceptors().add(new BasicAuthenticationInterceptor(username, password));
+        testRestTemplate.postForEntity(API_1_0_LOGIN, null, Object.class);
+    }
+
+    private List<LoginAttempt> awaitAttempts(String username) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            List<LoginAttempt> attempts = LoginAuditReader.readAll(Paths.get(auditDirectory)).stream()
+                    .filter(attempt -> attempt.getUsername().equals(username) && attempt.getTimestamp() >= testStart)
+                    .collect(Collectors.toList());
+            if (!attempts.isEmpty() || System.currentTimeMillis() > deadline) {
+                return attempts;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
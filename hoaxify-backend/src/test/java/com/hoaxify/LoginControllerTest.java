@@ -1,10 +1,13 @@
 package com.hoaxify;
 
+import com.hoaxify.budget.RequestBudget;
+import com.hoaxify.budget.RequestBudgetRule;
 import com.hoaxify.error.ApiError;
 import com.hoaxify.user.User;
 import com.hoaxify.user.UserRepository;
 import com.hoaxify.user.UserService;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +32,9 @@ public class LoginControllerTest {
 
     private static final String API_1_0_LOGIN = "/api/1.0/login";
 
+    @Rule
+    public RequestBudgetRule requestBudgets = new RequestBudgetRule();
+
     @Autowired
     private TestRestTemplate testRestTemplate;
 
@@ -87,6 +93,16 @@ public class LoginControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    public void postLogin_withUsernameInOtherCase_receiveLoggedInUser() {
+        User inDB = userService.save(TestUtil.createValidUser());
+        testRestTemplate.getRestTemplate().getInterceptors().add(new BasicAuthenticationInterceptor("TEST-User", "P4ssword"));
+        ResponseEntity<Map<String, Object>> response = sendLoginRequest(new ParameterizedTypeReference<>() {});
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().get("id")).isEqualTo(inDB.getId());
+    }
+
     @Test
     public void postLogin_withValidCredentials_receiveLoggedInUserId() {
         User user =TestUtil.createValidUser();
@@ -147,6 +163,17 @@ public class LoginControllerTest {
         assertThat(body.containsKey("password")).isFalse();
     }
 
+    // BCrypt alone allocates about 1.9 MB per password check
+    @Test
+    @RequestBudget(method = "POST", path = API_1_0_LOGIN, maxStatements = 1, maxAllocatedKb = 3072)
+    public void postLogin_withValidCredentialsTwice_staysWithinBudget() {
+        userService.save(TestUtil.createValidUser());
+        addAuthenticationHeader();
+
+        sendLoginRequest(Object.class);
+        sendLoginRequest(Object.class);
+    }
+
     private void addAuthenticationHeader() {
         testRestTemplate.getRestTemplate().getInterceptors().add(new BasicAuthenticationInterceptor("test-user", "P4ssword"));
     }
@@ -0,0 +1,124 @@
+package com.hoaxify;
+
+import com.hoaxify.error.ApiError;
+import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UserService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "hoaxify.login-rate-limit.username.capacity=2",
+        "hoaxify.login-rate-limit.username.refill-period=1h"
+})
+@ActiveProfiles("test")
+public class LoginRateLimitTest {
+
+    private static final String API_1_0_LOGIN = "/api/1.0/login";
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Before
+    public void cleanup() {
+        userRepository.deleteAll();
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+    }
+
+    @Test
+    public void postLogin_whenUsernameExceededAttempts_receiveTooManyRequests() {
+        addAuthenticationHeader("limited-user-1");
+        sendLoginRequest(Object.class);
+        sendLoginRequest(Object.class);
+
+        ResponseEntity<Object> response = sendLoginRequest(Object.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    public void postLogin_whenUsernameExceededAttempts_receiveApiError() {
+        addAuthenticationHeader("limited-user-2");
+        sendLoginRequest(Object.class);
+        sendLoginRequest(Object.class);
+
+        ResponseEntity<ApiError> response = sendLoginRequest(ApiError.class);
+        assertThat(response.getBody().getStatus()).isEqualTo(429);
+        assertThat(response.getBody().getUrl()).isEqualTo(API_1_0_LOGIN);
+    }
+
+    @Test
+    public void postLogin_whenAnotherUsernameExceededAttempts_receiveUnauthorized() {
+        addAuthenticationHeader("limited-user-3");
+        sendLoginRequest(Object.class);
+        sendLoginRequest(Object.class);
+
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+        addAuthenticationHeader("other-user");
+        ResponseEntity<Object> response = sendLoginRequest(Object.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    public void postLogin_whenCaseVariantsOfUsernameExceededAttempts_receiveTooManyRequests() {
+        addAuthenticationHeader("limited-user-4");
+        sendLoginRequest(Object.class);
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+        addAuthenticationHeader("LIMITED-USER-4");
+        sendLoginRequest(Object.class);
+
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+        addAuthenticationHeader("Limited-User-4");
+        ResponseEntity<Object> response = sendLoginRequest(Object.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    public void authenticatedRequests_whenMoreThanUsernameCapacity_receiveNoTooManyRequests() {
+        userService.save(TestUtil.createValidUser("busy-user"));
+        addAuthenticationHeader("busy-user");
+
+        // the client sends Basic credentials on every call after login
+        for (int i = 0; i < 25; i++) {
+            ResponseEntity<Object> response = i % 2 == 0
+                    ? sendLoginRequest(Object.class)
+                    : testRestTemplate.getForEntity("/api/1.0/users", Object.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+    }
+
+    @Test
+    public void postLogin_whenWrongPasswordExceededAttempts_receiveTooManyRequests() {
+        userService.save(TestUtil.createValidUser("guessed-user"));
+        testRestTemplate.getRestTemplate().getInterceptors().add(new BasicAuthenticationInterceptor("guessed-user", "Wr0ngPassword"));
+        sendLoginRequest(Object.class);
+        sendLoginRequest(Object.class);
+
+        ResponseEntity<Object> response = sendLoginRequest(Object.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private void addAuthenticationHeader(String username) {
+        testRestTemplate.getRestTemplate().getInterceptors().add(new BasicAuthenticationInterceptor(username, "P4ssword"));
+    }
+
+    private <T> ResponseEntity<T> sendLoginRequest(Class<T> responseType) {
+        return testRestTemplate.postForEntity(API_1_0_LOGIN, null, responseType);
+    }
+}
@@ -0,0 +1,82 @@
+package com.hoaxify;
+
+import com.hoaxify.user.NormalizedUsernameBackfill;
+import com.hoaxify.user.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "hoaxify.normalized-username-backfill.batch-size=2")
+@ActiveProfiles("test")
+public class NormalizedUsernameBackfillTest {
+
+    @Autowired
+    NormalizedUsernameBackfill backfill;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void cleanup() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void backfill_fillsRowsWrittenWithoutNormalizedUsername() {
+        insertLegacyUser(1, "User-One");
+        insertLegacyUser(2, "user-two");
+        insertLegacyUser(3, "USER-THREE");
+
+        int filled = backfill.backfill();
+
+        assertThat(filled).isEqualTo(3);
+        assertThat(userRepository.findByNormalizedUsername("user-one").getId()).isEqualTo(1);
+        assertThat(userRepository.findByNormalizedUsername("user-three").getId()).isEqualTo(3);
+    }
+
+    @Test
+    public void backfill_keepsUpdatedAt() {
+        insertLegacyUser(1, "User-One");
+
+        backfill.backfill();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT updated_at FROM user WHERE id = 1", Long.class)).isEqualTo(42);
+    }
+
+    @Test
+    public void backfill_whenNamesCollide_fillsAllOthersAndLeavesLaterOneEmpty() {
+        insertLegacyUser(1, "user-one");
+        insertLegacyUser(2, "User-One");
+        insertLegacyUser(3, "user-three");
+
+        int filled = backfill.backfill();
+
+        assertThat(filled).isEqualTo(2);
+        assertThat(userRepository.findByNormalizedUsername("user-one").getId()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT normalized_username FROM user WHERE id = 2", String.class)).isNull();
+        assertThat(userRepository.findByNormalizedUsername("user-three").getId()).isEqualTo(3);
+    }
+
+    @Test
+    public void backfill_whenNothingIsMissing_fillsNothing() {
+        insertLegacyUser(1, "user-one");
+        backfill.backfill();
+
+        assertThat(backfill.backfill()).isEqualTo(0);
+    }
+
+    private void insertLegacyUser(int id, String username) {
+        jdbcTemplate.update("INSERT INTO user (id, username, display_name, password, updated_at) VALUES (?, ?, 'display', 'x', 42)", id, username);
+    }
+}
@@ -0,0 +1,81 @@
+package com.hoaxify;
+
+import com.hoaxify.user.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "hoaxify.datasource.replica.url=" + ReplicaRoutingTest.REPLICA_URL
+})
+@ActiveProfiles("test")
+public class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+
+    JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+
+    JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Before
+    public void copySchemaToReplica() {
+        replica.execute("DROP ALL OBJECTS");
+        // the replica has no replication here, so give it the schema Hibernate created on the primary
+        for (String statement : primary.queryForList("SCRIPT NODATA", String.class)) {
+            replica.execute(statement);
+        }
+        primary.update("DELETE FROM user");
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+    }
+
+    @Test
+    public void getUsers_whenUserOnlyExistsInReplica_receivesUserFromReplica() {
+        replica.update("INSERT INTO user (id, username, display_name, password, updated_at) VALUES (1000, 'replica-user', 'replica-display', 'x', 0)");
+
+        ResponseEntity<TestPage<Map<String, Object>>> response = testRestTemplate.exchange("/api/1.0/users", HttpMethod.GET, null, new ParameterizedTypeReference<>() {});
+
+        assertThat(response.getBody().getContent()).extracting(user -> user.get("username")).containsExactly("replica-user");
+    }
+
+    @Test
+    public void postUser_whenUserIsValid_savesUserToPrimaryOnly() {
+        testRestTemplate.postForEntity("/api/1.0/users", TestUtil.createValidUser(), Object.class);
+
+        assertThat(primary.queryForObject("SELECT count(*) FROM user", Integer.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("SELECT count(*) FROM user", Integer.class)).isEqualTo(0);
+    }
+
+    @Test
+    public void postLogin_rightAfterSignup_readsOwnWriteFromPrimary() {
+        User user = TestUtil.createValidUser("fresh-user");
+        testRestTemplate.postForEntity("/api/1.0/users", user, Object.class);
+
+        testRestTemplate.getRestTemplate().getInterceptors().add(new BasicAuthenticationInterceptor("fresh-user", "P4ssword"));
+        ResponseEntity<Object> response = testRestTemplate.postForEntity("/api/1.0/login", null, Object.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+}
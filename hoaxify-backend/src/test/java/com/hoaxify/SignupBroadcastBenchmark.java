@@ -0,0 +1,134 @@
+package com.hoaxify;
+
+import com.hoaxify.user.SignupBroadcaster;
+import com.hoaxify.user.User;
+import com.hoaxify.user.vm.UserVM;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Not a test: run the main method (optionally with a subscriber count) to measure signup fan-out over SSE.
+public class SignupBroadcastBenchmark {
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int subscribers = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HoaxifyApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=warn", "hoaxify.signup-stream.max-subscribers=" + (subscribers + 1))
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            SignupBroadcaster broadcaster = context.getBean(SignupBroadcaster.class);
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/1.0/signups/stream")).build();
+
+            long heapBefore = usedHeapAfterGc();
+            AtomicInteger received = new AtomicInteger();
+            AtomicLongArray arrivals = new AtomicLongArray(subscribers);
+            AtomicInteger connected = new AtomicInteger();
+            for (int i = 0; i < subscribers; i++) {
+                int index = i;
+                // the response future only completes with the body, so count the opening retry line instead
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(new EventLineSubscriber(connected::incrementAndGet, () -> {
+                    arrivals.set(index, System.nanoTime());
+                    received.incrementAndGet();
+                })));
+                if (i % 200 == 199) {
+                    awaitCount(connected, i + 1);
+                }
+            }
+            awaitCount(connected, subscribers);
+            long heapAfter = usedHeapAfterGc();
+            System.out.printf("%,d subscribers: %,d bytes of heap per connection (client and server together)%n",
+                    subscribers, (heapAfter - heapBefore) / subscribers);
+
+            User user = TestUtil.createValidUser("bench-user");
+            user.setId(1);
+            UserVM vm = new UserVM(user);
+            long[] publishNanos = new long[ROUNDS];
+            long[] deliveryNanos = new long[ROUNDS * subscribers];
+            for (int round = 0; round < ROUNDS; round++) {
+                received.set(0);
+                long start = System.nanoTime();
+                broadcaster.publish(vm);
+                publishNanos[round] = System.nanoTime() - start;
+                awaitCount(received, subscribers);
+                for (int i = 0; i < subscribers; i++) {
+                    deliveryNanos[round * subscribers + i] = arrivals.get(i) - start;
+                }
+            }
+            Arrays.sort(publishNanos);
+            Arrays.sort(deliveryNanos);
+            System.out.printf("publish call: p50 %.2f ms, max %.2f ms%n", publishNanos[ROUNDS / 2] / 1e6, publishNanos[ROUNDS - 1] / 1e6);
+            System.out.printf("delivery to all subscribers: p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                    percentile(deliveryNanos, 0.50), percentile(deliveryNanos, 0.99), deliveryNanos[deliveryNanos.length - 1] / 1e6);
+        }
+    }
+
+    private static void awaitCount(AtomicInteger count, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (count.get() < expected) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("only " + count.get() + " of " + expected + " subscribers responded");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) (sorted.length * p)] / 1e6;
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class EventLineSubscriber implements Flow.Subscriber<String> {
+
+        private final Runnable onRetry;
+
+        private final Runnable onData;
+
+        EventLineSubscriber(Runnable onRetry, Runnable onData) {
+            this.onRetry = onRetry;
+            this.onData = onData;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.startsWith("retry:")) {
+                onRetry.run();
+            } else if (line.startsWith("data:")) {
+                onData.run();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.hoaxify;
+
+import com.hoaxify.user.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+// Not a test: run the main method to compare process CPU for a signup retry storm, with and without Idempotency-Key.
+// Every signup is sent as a burst of concurrent copies, then retried a few more times one after another.
+public class SignupRetryStormBenchmark {
+
+    private static final int SIGNUPS = 100;
+
+    private static final int CONCURRENT_COPIES = 3;
+
+    private static final int LATER_RETRIES = 2;
+
+    public static void main(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HoaxifyApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=warn",
+                        // measure the work done per request, not how much the limiter sheds
+                        "hoaxify.concurrency-limit.initial-limit=1000",
+                        "hoaxify.concurrency-limit.min-limit=1000",
+                        "hoaxify.concurrency-limit.max-limit=1000")
+                .run(args)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            HttpClient client = HttpClient.newHttpClient();
+
+            for (int round = 1; round <= 3; round++) {
+                for (boolean withKey : new boolean[]{false, true}) {
+                    userRepository.deleteAllInBatch();
+                    storm(client, port, userRepository, round, withKey);
+                }
+            }
+        }
+    }
+
+    private static void storm(HttpClient client, int port, UserRepository userRepository, int round, boolean withKey) {
+        com.sun.management.OperatingSystemMXBean os = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuStart = os.getProcessCpuTime();
+        long start = System.nanoTime();
+        Map<Integer, Integer> statuses = new TreeMap<>();
+        List<CompletableFuture<Void>> signups = new ArrayList<>();
+        for (int i = 0; i < SIGNUPS; i++) {
+            HttpRequest request = signup(port, "storm-" + round + "-" + withKey + "-" + i, withKey);
+            List<CompletableFuture<HttpResponse<Void>>> burst = new ArrayList<>();
+            for (int c = 0; c < CONCURRENT_COPIES; c++) {
+                burst.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+            }
+            CompletableFuture<Void> retries = CompletableFuture.allOf(burst.toArray(new CompletableFuture[0]))
+                    .thenRun(() -> burst.forEach(response -> record(statuses, response.join().statusCode())));
+            for (int r = 0; r < LATER_RETRIES; r++) {
+                retries = retries.thenCompose(ignored -> client.sendAsync(request, HttpResponse.BodyHandlers.discarding()))
+                        .thenAccept(response -> record(statuses, response.statusCode()));
+            }
+            signups.add(retries);
+        }
+        CompletableFuture.allOf(signups.toArray(new CompletableFuture[0])).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double cpuMillis = (os.getProcessCpuTime() - cpuStart) / 1e6;
+        System.out.printf("round %d, %s: %.1f s, %.0f ms CPU, %.1f ms CPU per signup, responses %s, %d users saved%n",
+                round, withKey ? "Idempotency-Key" : "no key", seconds, cpuMillis, cpuMillis / SIGNUPS, statuses, userRepository.count());
+    }
+
+    private static synchronized void record(Map<Integer, Integer> statuses, int status) {
+        statuses.merge(status, 1, Integer::sum);
+    }
+
+    private static HttpRequest signup(int port, String username, boolean withKey) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/1.0/users"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + username + "\",\"displayName\":\"storm-display\",\"password\":\"P4ssword\"}"));
+        if (withKey) {
+            request.header("Idempotency-Key", username);
+        }
+        return request.build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.hoaxify;
+
+import com.hoaxify.user.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+// Not a test: run the main method to send a burst of signups at once, synchronous versus "Prefer: respond-async",
+// and compare how long clients wait for an answer and how long until every accepted user is in the database.
+public class SignupSpikeBenchmark {
+
+    private static final int SPIKE = 300;
+
+    public static void main(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HoaxifyApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=warn")
+                .run(args)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            HttpClient client = HttpClient.newHttpClient();
+
+            for (int round = 1; round <= 3; round++) {
+                for (boolean async : new boolean[]{false, true}) {
+                    userRepository.deleteAllInBatch();
+                    spike(client, port, userRepository, round, async);
+                }
+            }
+        }
+    }
+
+    private static void spike(HttpClient client, int port, UserRepository userRepository, int round, boolean async) throws Exception {
+        long start = System.nanoTime();
+        List<CompletableFuture<long[]>> responses = new ArrayList<>();
+        for (int i = 0; i < SPIKE; i++) {
+            String body = "{\"username\":\"spike-" + round + "-" + i + "\",\"displayName\":\"spike-display\",\"password\":\"P4ssword\"}";
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/1.0/users"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+            if (async) {
+                request.header("Prefer", "respond-async");
+            }
+            responses.add(client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> new long[]{response.statusCode(), System.nanoTime() - start}));
+        }
+        Map<Long, Integer> statuses = new TreeMap<>();
+        long[] latencies = new long[SPIKE];
+        for (int i = 0; i < SPIKE; i++) {
+            long[] result = responses.get(i).join();
+            statuses.merge(result[0], 1, Integer::sum);
+            latencies[i] = result[1];
+        }
+        long answeredMillis = (System.nanoTime() - start) / 1_000_000;
+        long expected = statuses.getOrDefault(200L, 0) + statuses.getOrDefault(202L, 0);
+        while (userRepository.count() < expected) {
+            Thread.sleep(5);
+        }
+        long savedMillis = (System.nanoTime() - start) / 1_000_000;
+        Arrays.sort(latencies);
+        System.out.printf("round %d, %s: responses %s, answer p50 %d ms, p99 %d ms, all answered %d ms, all saved %d ms%n",
+                round, async ? "respond-async" : "synchronous", statuses,
+                latencies[SPIKE / 2] / 1_000_000, latencies[SPIKE * 99 / 100] / 1_000_000, answeredMillis, savedMillis);
+    }
+}
@@ -0,0 +1,123 @@
+package com.hoaxify;
+
+import com.hoaxify.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "hoaxify.signup-stream.max-subscribers=2",
+        "hoaxify.signup-stream.heartbeat-interval-ms=100"
+})
+@ActiveProfiles("test")
+public class SignupStreamTest {
+
+    private static final String API_1_0_SIGNUPS_STREAM = "/api/1.0/signups/stream";
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    HttpClient httpClient = HttpClient.newHttpClient();
+
+    List<Stream<String>> openStreams = new ArrayList<>();
+
+    @Before
+    public void cleanUp() {
+        userRepository.deleteAll();
+    }
+
+    @After
+    public void closeStreams() throws InterruptedException {
+        openStreams.forEach(Stream::close);
+        // the server notices closed streams on the next heartbeat write
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("hoaxify.signup-stream.subscribers").gauge().value() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    public void postUser_whenStreamIsOpen_receiveSignupEvent() throws Exception {
+        HttpResponse<Stream<String>> stream = openStream();
+
+        testRestTemplate.postForEntity("/api/1.0/users", TestUtil.createValidUser("streamed-user"), Object.class);
+
+        String data = readData(stream.body());
+        assertThat(data).contains("\"username\":\"streamed-user\"");
+        assertThat(data).doesNotContain("password");
+    }
+
+    @Test
+    public void postUser_whenSignupIsInvalid_receiveNoEvent() throws Exception {
+        HttpResponse<Stream<String>> stream = openStream();
+
+        testRestTemplate.postForEntity("/api/1.0/users", TestUtil.createValidUser("bad"), Object.class);
+        testRestTemplate.postForEntity("/api/1.0/users", TestUtil.createValidUser("valid-user"), Object.class);
+
+        assertThat(readData(stream.body())).contains("\"username\":\"valid-user\"");
+    }
+
+    @Test
+    public void getStream_whenTooManyStreamsAreOpen_receiveServiceUnavailable() throws Exception {
+        openStream();
+        openStream();
+
+        HttpResponse<Stream<String>> response = openStream();
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    private HttpResponse<Stream<String>> openStream() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + API_1_0_SIGNUPS_STREAM))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+        openStreams.add(response.body());
+        return response;
+    }
+
+    private String readData(Stream<String> lines) throws Exception {
+        Iterator<String> iterator = lines.iterator();
+        return CompletableFuture.supplyAsync(() -> {
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (line.startsWith("data:")) {
+                    return line.substring("data:".length());
+                }
+            }
+            return null;
+        }).get(5, TimeUnit.SECONDS);
+    }
+}
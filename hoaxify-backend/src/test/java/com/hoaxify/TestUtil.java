@@ -1,5 +1,6 @@
 package com.hoaxify;
 
+import com.hoaxify.hoax.Hoax;
 import com.hoaxify.user.User;
 
 public class TestUtil {
@@ -18,4 +19,10 @@ public class TestUtil {
         user.setUsername(username);
         return user;
     }
+
+    public static Hoax createValidHoax() {
+        Hoax hoax = new Hoax();
+        hoax.setContent("test content for the test hoax");
+        return hoax;
+    }
 }
@@ -0,0 +1,124 @@
+package com.hoaxify;
+
+import com.hoaxify.error.ApiError;
+import com.hoaxify.tracing.TracingFilter;
+import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UserService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "management.endpoints.web.exposure.include=traces",
+        "hoaxify.login-rate-limit.username.capacity=1000"
+})
+@ActiveProfiles("test")
+public class TracingTest {
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserService userService;
+
+    @Before
+    public void cleanUp() {
+        userRepository.deleteAll();
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+    }
+
+    @Test
+    public void getUsers_recordsServiceRepositoryAndSerializationSpans() {
+        ResponseEntity<Object> response = testRestTemplate.getForEntity("/api/1.0/users", Object.class);
+
+        List<String> spans = spanNames(response.getHeaders().getFirst(TracingFilter.TRACE_ID_HEADER));
+        assertThat(spans).contains("GET /api/1.0/users", "security filter chain", "UserService.getUsers", "UserRepository.findAll", "JSON write");
+    }
+
+    @Test
+    public void postLogin_withWrongPassword_returnsTraceIdOfSpansCoveringAuthentication() {
+        userService.save(TestUtil.createValidUser("user1"));
+        testRestTemplate.getRestTemplate().getInterceptors().add(new BasicAuthenticationInterceptor("user1", "Wr0ngPassword"));
+
+        ResponseEntity<ApiError> response = testRestTemplate.postForEntity("/api/1.0/login", null, ApiError.class);
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        String traceId = response.getBody().getTraceId();
+        assertThat(traceId).isEqualTo(response.getHeaders().getFirst(TracingFilter.TRACE_ID_HEADER));
+        Map<String, Object> trace = trace(traceId);
+        assertThat(spanNames(trace)).contains("security filter chain", "AuthUserService.loadUserByUsername", "UserRepository.findByNormalizedUsername", "PasswordEncoder.matches");
+    }
+
+    @Test
+    public void postUser_whenUsernameIsTaken_returnsTraceIdOfSpansCoveringValidation() {
+        userService.save(TestUtil.createValidUser("user1"));
+
+        ResponseEntity<ApiError> response = testRestTemplate.postForEntity("/api/1.0/users", TestUtil.createValidUser("user1"), ApiError.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(spanNames(response.getBody().getTraceId())).contains("validate @UniqueUsername", "UserRepository.findByNormalizedUsername");
+    }
+
+    @Test
+    public void getUser_whenUserDoesNotExist_errorFromErrorDispatchCarriesTraceId() {
+        ResponseEntity<ApiError> response = testRestTemplate.getForEntity("/api/1.0/users/unknown-user", ApiError.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getBody().getTraceId()).isEqualTo(response.getHeaders().getFirst(TracingFilter.TRACE_ID_HEADER));
+        assertThat(spanNames(response.getBody().getTraceId())).contains("UserService.getProfile");
+    }
+
+    private List<String> spanNames(String traceId) {
+        return spanNames(trace(traceId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> spanNames(Map<String, Object> trace) {
+        return ((List<Map<String, Object>>) trace.get("spans")).stream()
+                .map(span -> (String) span.get("name"))
+                .collect(Collectors.toList());
+    }
+
+    // the client can have the response before the root span ends and the trace is collected
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> trace(String traceId) {
+        assertThat(traceId).isNotNull();
+        ResponseEntity<Map> response = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            response = testRestTemplate.getForEntity("/actuator/traces/" + traceId, Map.class);
+            if (response.getStatusCode() == HttpStatus.OK) {
+                return response.getBody();
+            }
+            sleep();
+        }
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.hoaxify;
+
+import com.hoaxify.user.User;
+import com.hoaxify.user.UserChangeRepository;
+import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UserService;
+import com.hoaxify.user.UsersChangedEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "hoaxify.user-change-log.enabled=true",
+        "hoaxify.user-change-log.poll-interval-ms=100"
+})
+@ActiveProfiles("test")
+// closed after the class, so it stops polling before another context drops the shared schema
+@DirtiesContext
+public class UserChangeLogTest {
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserChangeRepository userChangeRepository;
+
+    ConfigurableApplicationContext otherNode;
+
+    List<UsersChangedEvent> otherNodeEvents = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void startOtherNode() {
+        userRepository.deleteAll();
+        // shares the in-memory H2 database with this test's context, like a second instance behind the load balancer
+        otherNode = new SpringApplicationBuilder(HoaxifyApplication.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "hoaxify.user-change-log.poll-interval-ms=100")
+                .listeners((ApplicationListener<ApplicationEvent>) event -> {
+                    if (event instanceof PayloadApplicationEvent && ((PayloadApplicationEvent<?>) event).getPayload() instanceof UsersChangedEvent) {
+                        otherNodeEvents.add((UsersChangedEvent) ((PayloadApplicationEvent<?>) event).getPayload());
+                    }
+                })
+                // an argument, since default properties lose to the test profile, which turns polling off
+                .run("--hoaxify.user-change-log.enabled=true");
+    }
+
+    @After
+    public void stopOtherNode() {
+        otherNode.close();
+    }
+
+    @Test
+    public void save_whenUserIsSaved_writesChangeLogEntry() {
+        long before = userChangeRepository.count();
+        userService.save(TestUtil.createValidUser());
+        assertThat(userChangeRepository.count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    public void save_whenUserIsSavedOnOneNode_otherNodeReceivesInvalidation() throws InterruptedException {
+        waitUntilPolling();
+
+        User saved = userService.save(TestUtil.createValidUser());
+
+        assertThat(awaitEventFor(saved)).isTrue();
+    }
+
+    private void waitUntilPolling() throws InterruptedException {
+        Thread.sleep(300);
+    }
+
+    private boolean awaitEventFor(User user) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            boolean received = otherNodeEvents.stream()
+                    .anyMatch(e -> e.getUserIds().contains(user.getId()) && e.getUsernames().contains(user.getUsername()));
+            if (received) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+}
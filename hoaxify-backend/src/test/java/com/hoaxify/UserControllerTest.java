@@ -1,20 +1,32 @@
 package com.hoaxify;
 
+import com.hoaxify.budget.RequestBudget;
+import com.hoaxify.budget.RequestBudgetRule;
 import com.hoaxify.error.ApiError;
+import com.hoaxify.error.ConflictException;
 import com.hoaxify.shared.GenericResponse;
 import com.hoaxify.user.User;
 import com.hoaxify.user.UserRepository;
 import com.hoaxify.user.UserService;
+import com.hoaxify.user.UsersChangedEvent;
+import com.hoaxify.user.vm.UserBatchRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.support.BasicAuthenticationInterceptor;
 import org.springframework.test.context.ActiveProfiles;
@@ -22,10 +34,12 @@ import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -34,6 +48,9 @@ public class UserControllerTest  {
 
     public static final String API_1_0_USERS = "/api/1.0/users";
 
+    @Rule
+    public RequestBudgetRule requestBudgets = new RequestBudgetRule();
+
     @Autowired
     TestRestTemplate testRestTemplate;
 
@@ -43,6 +60,12 @@ public class UserControllerTest  {
     @Autowired
     UserService userService;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @Before
     public void cleanUp() {
         userRepository.deleteAll();
@@ -56,6 +79,15 @@ public class UserControllerTest  {
         assertThat(postResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    public void saveUser_whenNormalizedUsernameIsTaken_throwsConflict() {
+        userService.save(TestUtil.createValidUser("Test-User"));
+        // bypasses the validator, as a concurrent signup would
+        assertThatThrownBy(() -> userService.save(TestUtil.createValidUser("TEST-USER")))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("TEST-USER is already taken");
+    }
+
     @Test
     public void postUser_whenUserIsValid_receiveSuccessMessage() {
         User user = TestUtil.createValidUser();
@@ -64,6 +96,7 @@ public class UserControllerTest  {
     }
 
     @Test
+    @RequestBudget(method = "POST", path = API_1_0_USERS, maxStatements = 3)
     public void postUser_whenUserIsValid_saveUserToDatabase() {
         User user = TestUtil.createValidUser();
         testRestTemplate.postForEntity(API_1_0_USERS, user, Object.class);
@@ -251,6 +284,7 @@ public class UserControllerTest  {
     }
 
     @Test
+    @RequestBudget(method = "POST", path = API_1_0_USERS, maxStatements = 1)
     public void postUser_whenAnotherUserHasSameUsername_receiveBadRequest() {
         userRepository.save(TestUtil.createValidUser());
 
@@ -270,6 +304,51 @@ public class UserControllerTest  {
         assertThat(validationErrors.get("username")).isEqualTo("This name is in use");
     }
 
+    @Test
+    public void postUser_whenAnotherUserHasSameUsernameInOtherCase_receiveMessageOfDuplicateUsername() {
+        userRepository.save(TestUtil.createValidUser("user1"));
+
+        User user = TestUtil.createValidUser("User1");
+        ResponseEntity<ApiError> resp = postSignup(user, ApiError.class);
+        Map<String, String> validationErrors = resp.getBody().getValidationErrors();
+        assertThat(validationErrors.get("username")).isEqualTo("This name is in use");
+    }
+
+    @Test
+    public void postUser_whenAnotherUserHasSameUsernameAndPasswordIsInvalid_receiveOnlyPasswordError() {
+        userRepository.save(TestUtil.createValidUser());
+
+        User user = TestUtil.createValidUser();
+        user.setPassword("alllowercase");
+        ResponseEntity<ApiError> resp = postSignup(user, ApiError.class);
+
+        Map<String, String> validationErrors = resp.getBody().getValidationErrors();
+        assertThat(validationErrors).containsOnlyKeys("password");
+    }
+
+    @Test
+    public void postUser_whenUserHasInvalidFields_doesNotLookUpUsername() {
+        userRepository.save(TestUtil.createValidUser());
+        long lookups = usernameLookups();
+
+        User user = TestUtil.createValidUser();
+        user.setDisplayName(null);
+        user.setPassword("abc");
+        postSignup(user, Object.class);
+
+        assertThat(usernameLookups()).isEqualTo(lookups);
+    }
+
+    @Test
+    public void postUser_whenUserIsValid_recordsUsernameLookup() {
+        postSignup(TestUtil.createValidUser(), Object.class);
+        long lookups = usernameLookups();
+
+        postSignup(TestUtil.createValidUser("second-user"), Object.class);
+
+        assertThat(usernameLookups()).isEqualTo(lookups + 1);
+    }
+
     @Test
     public void getUsers_whenThereAreNoUsersInDB_receiveOk() {
         ResponseEntity<Object> response = getUsers(new ParameterizedTypeReference<>() {});
@@ -296,6 +375,7 @@ public class UserControllerTest  {
     }
 
     @Test
+    @RequestBudget(path = API_1_0_USERS, maxStatements = 2)
     public void getUsers_whenPageIsRequestedFor3ItemsPerPageWhereTheDBHas20Users_receive3Users() {
         IntStream.rangeClosed(1,20).mapToObj(i -> "test-user-" +i)
         .map(TestUtil::createValidUser)
@@ -337,7 +417,9 @@ public class UserControllerTest  {
         assertThat(response.getBody().getNumber()).isEqualTo(0);
     }
 
+    // the user lookup for Basic authentication, the page and its count
     @Test
+    @RequestBudget(path = API_1_0_USERS, maxStatements = 3)
     public void getUsers_whenUserLoggedIn_receivePageWithoutLoggedInUser() {
         userService.save(TestUtil.createValidUser("user-1"));
         userService.save(TestUtil.createValidUser("user-2"));
@@ -349,10 +431,179 @@ public class UserControllerTest  {
 
     }
 
+    @Test
+    @RequestBudget(path = API_1_0_USERS + "/*", maxStatements = 1)
+    public void getUserByUsername_whenUserExist_receiveOkWithUser() {
+        userService.save(TestUtil.createValidUser("profile-user"));
+
+        ResponseEntity<Map<String, Object>> response = getUser("profile-user", new HttpHeaders());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().get("username")).isEqualTo("profile-user");
+        assertThat(response.getBody()).doesNotContainKeys("password", "updatedAt");
+    }
+
+    @Test
+    public void getUserByUsername_whenUserDoesNotExist_receiveNotFound() {
+        ResponseEntity<ApiError> response = testRestTemplate.getForEntity(API_1_0_USERS + "/unknown-user", ApiError.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getBody().getMessage()).isEqualTo("unknown-user not found");
+    }
+
+    @Test
+    public void getUserByUsername_whenETagMatches_receiveNotModified() {
+        userService.save(TestUtil.createValidUser("profile-user"));
+        String etag = getUser("profile-user", new HttpHeaders()).getHeaders().getETag();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<Map<String, Object>> response = getUser("profile-user", headers);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    public void getUserByUsername_whenNotModifiedSinceLastModified_receiveNotModified() {
+        userService.save(TestUtil.createValidUser("profile-user"));
+        long lastModified = getUser("profile-user", new HttpHeaders()).getHeaders().getLastModified();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfModifiedSince(lastModified);
+        ResponseEntity<Map<String, Object>> response = getUser("profile-user", headers);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    public void getUserByUsername_whenUserWasRequestedBefore_receiveUserWithoutReadingDatabase() {
+        userService.save(TestUtil.createValidUser("cached-user"));
+        getUser("cached-user", new HttpHeaders());
+
+        userRepository.deleteAll();
+        ResponseEntity<Map<String, Object>> response = getUser("cached-user", new HttpHeaders());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    public void getUserByUsername_whenUserChangedOnAnotherNode_receiveNotFoundAfterInvalidation() {
+        userService.save(TestUtil.createValidUser("changed-user"));
+        getUser("changed-user", new HttpHeaders());
+
+        userRepository.deleteAll();
+        eventPublisher.publishEvent(new UsersChangedEvent(Set.of(), Set.of("changed-user")));
+        ResponseEntity<Map<String, Object>> response = getUser("changed-user", new HttpHeaders());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    public ResponseEntity<Map<String, Object>> getUser(String username, HttpHeaders headers) {
+        return testRestTemplate.exchange(API_1_0_USERS + "/" + username, HttpMethod.GET, new HttpEntity<>(headers), new ParameterizedTypeReference<>() {});
+    }
+
+    @Test
+    @RequestBudget(method = "POST", path = API_1_0_USERS + "/batch", maxStatements = 2)
+    public void postUsersBatch_whenIdsAndUsernamesRequested_receiveUsersInRequestOrder() {
+        User user1 = userService.save(TestUtil.createValidUser("user-1"));
+        User user2 = userService.save(TestUtil.createValidUser("user-2"));
+        userService.save(TestUtil.createValidUser("user-3"));
+
+        Map<String, Object> request = Map.of("ids", List.of(user2.getId(), user1.getId()), "usernames", List.of("user-3", "user-1"));
+        ResponseEntity<Map<String, Object>> response = postUsersBatch(request);
+
+        List<Map<String, Object>> users = (List<Map<String, Object>>) response.getBody().get("users");
+        assertThat(users).extracting(u -> u.get("username")).containsExactly("user-2", "user-1", "user-3");
+    }
+
+    @Test
+    public void postUsersBatch_whenSomeUsersDoNotExist_receiveMissingKeys() {
+        User user = userService.save(TestUtil.createValidUser("user-1"));
+
+        Map<String, Object> request = Map.of("ids", List.of(user.getId(), user.getId() + 1000), "usernames", List.of("nobody"));
+        ResponseEntity<Map<String, Object>> response = postUsersBatch(request);
+
+        assertThat(response.getBody().get("missingIds")).isEqualTo(List.of(user.getId() + 1000));
+        assertThat(response.getBody().get("missingUsernames")).isEqualTo(List.of("nobody"));
+    }
+
+    @Test
+    public void postUsersBatch_whenIdsAndUsernamesAreNull_receiveEmptyBatch() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<Map<String, Object>> response = postUsersBatch(new HttpEntity<>("{\"ids\": null, \"usernames\": null}", headers));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().get("users")).isEqualTo(List.of());
+    }
+
+    @Test
+    public void postUsersBatch_whenMoreKeysThanAllowedRequested_receiveBadRequest() {
+        List<Integer> ids = IntStream.rangeClosed(1, UserBatchRequest.MAX_KEYS + 1).boxed().collect(Collectors.toList());
+        ResponseEntity<ApiError> response = testRestTemplate.postForEntity(API_1_0_USERS + "/batch", Map.of("ids", ids), ApiError.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody().getValidationErrors().get("ids")).isEqualTo("At most " + UserBatchRequest.MAX_KEYS + " users can be requested at once");
+    }
+
+    @Test
+    @RequestBudget(path = API_1_0_USERS, maxStatements = 2, maxAllocatedKb = 256)
+    public void getUsers_whenPageIsRequestedTwice_staysWithinBudget() {
+        IntStream.rangeClosed(1, 20).mapToObj(i -> "test-user-" + i)
+                .map(TestUtil::createValidUser)
+                .forEach(userRepository::save);
+
+        for (int i = 0; i < 2; i++) {
+            getUsers(API_1_0_USERS + "?page=0&size=3", new ParameterizedTypeReference<TestPage<Object>>() {});
+        }
+    }
+
+    // BCrypt alone allocates about 1.9 MB per hash
+    @Test
+    @RequestBudget(method = "POST", path = API_1_0_USERS, maxStatements = 3, maxAllocatedKb = 3072)
+    public void postUser_whenTwoUsersSignUp_staysWithinBudget() {
+        postSignup(TestUtil.createValidUser("user-1"), Object.class);
+        postSignup(TestUtil.createValidUser("user-2"), Object.class);
+    }
+
+    @Test
+    @RequestBudget(path = API_1_0_USERS + "/*", maxStatements = 1, maxAllocatedKb = 256)
+    public void getUserByUsername_whenTwoUsersAreRequested_staysWithinBudget() {
+        userService.save(TestUtil.createValidUser("user-1"));
+        userService.save(TestUtil.createValidUser("user-2"));
+
+        getUser("user-1", new HttpHeaders());
+        getUser("user-2", new HttpHeaders());
+    }
+
+    @Test
+    @RequestBudget(method = "POST", path = API_1_0_USERS + "/batch", maxStatements = 2, maxAllocatedKb = 256)
+    public void postUsersBatch_whenRequestedTwice_staysWithinBudget() {
+        User user = userService.save(TestUtil.createValidUser("user-1"));
+        userService.save(TestUtil.createValidUser("user-2"));
+
+        for (int i = 0; i < 2; i++) {
+            postUsersBatch(Map.of("ids", List.of(user.getId()), "usernames", List.of("user-2")));
+        }
+    }
+
+    public ResponseEntity<Map<String, Object>> postUsersBatch(Object request) {
+        return postUsersBatch(new HttpEntity<>(request));
+    }
+
+    public ResponseEntity<Map<String, Object>> postUsersBatch(HttpEntity<?> request) {
+        return testRestTemplate.exchange(API_1_0_USERS + "/batch", HttpMethod.POST, request, new ParameterizedTypeReference<>() {});
+    }
+
     public <T> ResponseEntity<T> postSignup(Object requestBody, Class<T> response) {
         return testRestTemplate.postForEntity(API_1_0_USERS, requestBody, response);
     }
 
+    private long usernameLookups() {
+        Timer timer = meterRegistry.find("hoaxify.validation.constraint").tag("constraint", "UniqueUsername").timer();
+        return timer == null ? 0 : timer.count();
+    }
+
     public <T> ResponseEntity<T> getUsers(ParameterizedTypeReference<T> responseType) {
         return testRestTemplate.exchange(API_1_0_USERS, HttpMethod.GET, null, responseType);
     }
@@ -0,0 +1,46 @@
+package com.hoaxify;
+
+import com.hoaxify.user.User;
+import com.hoaxify.user.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Not a test: run the main method to measure UserRepository.saveAll insert throughput.
+public class UserInsertBenchmark {
+
+    private static final int USERS = 100_000;
+
+    private static final int CHUNK = 1_000;
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HoaxifyApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=warn")
+                .run(args)) {
+            UserRepository userRepository = context.getBean(UserRepository.class);
+
+            for (int round = 1; round <= 3; round++) {
+                userRepository.deleteAllInBatch();
+                long start = System.nanoTime();
+                for (int offset = 0; offset < USERS; offset += CHUNK) {
+                    userRepository.saveAll(users(round, offset));
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("round %d: %,d users in %.2f s, %,.0f users/s%n", round, USERS, seconds, USERS / seconds);
+            }
+        }
+    }
+
+    private static List<User> users(int round, int offset) {
+        List<User> users = new ArrayList<>(CHUNK);
+        for (int i = offset; i < offset + CHUNK; i++) {
+            User user = TestUtil.createValidUser("bench-" + round + "-" + i);
+            user.setPassword("$2a$10$abcdefghijklmnopqrstuu5ZJ1.IGN8Uv6GAmB0s1dHPnWv7KyjNe");
+            users.add(user);
+        }
+        return users;
+    }
+}
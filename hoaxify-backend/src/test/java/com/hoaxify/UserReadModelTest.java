@@ -0,0 +1,112 @@
+package com.hoaxify;
+
+import com.hoaxify.user.User;
+import com.hoaxify.user.UserReadModel;
+import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UserService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "hoaxify.user-read-model.enabled=true",
+        "hoaxify.login-rate-limit.username.capacity=1000"
+})
+@ActiveProfiles("test")
+public class UserReadModelTest {
+
+    private static final String API_1_0_USERS = "/api/1.0/users";
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserReadModel userReadModel;
+
+    @Before
+    public void cleanUp() {
+        userRepository.deleteAll();
+        userReadModel.rebuild();
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+    }
+
+    @Test
+    public void getUsers_whenUserIsSavedThroughService_listsUser() {
+        userService.save(TestUtil.createValidUser("user1"));
+
+        assertThat(listedUsernames(API_1_0_USERS)).containsExactly("user1");
+    }
+
+    @Test
+    public void getUsers_whenUserIsWrittenAroundService_listsUserOnlyAfterRebuild() {
+        userRepository.save(TestUtil.createValidUser("user1"));
+
+        assertThat(listedUsernames(API_1_0_USERS)).isEmpty();
+        userReadModel.rebuild();
+        assertThat(listedUsernames(API_1_0_USERS)).containsExactly("user1");
+    }
+
+    @Test
+    public void getUsers_whenLoggedIn_excludesLoggedInUserFromPageAndTotal() {
+        for (int i = 1; i <= 4; i++) {
+            userService.save(TestUtil.createValidUser("user" + i));
+        }
+        testRestTemplate.getRestTemplate().getInterceptors().add(new BasicAuthenticationInterceptor("user2", "P4ssword"));
+
+        TestPage<Map<String, Object>> page = getPage(API_1_0_USERS + "?page=0&size=2");
+
+        assertThat(page.getContent()).extracting(user -> user.get("username")).containsExactly("user1", "user3");
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    public void getUsers_whenSortIsRequested_listsFromDatabase() {
+        userRepository.save(TestUtil.createValidUser("user1"));
+
+        assertThat(listedUsernames(API_1_0_USERS + "?sort=username")).containsExactly("user1");
+    }
+
+    @Test
+    public void put_whenStoreFails_doesNotThrowAndListsFromDatabaseUntilRebuild() {
+        userService.save(TestUtil.createValidUser("user1"));
+        User broken = new User();
+        broken.setId(Integer.MAX_VALUE);
+
+        userReadModel.put(broken);
+
+        assertThat(userReadModel.page(null, PageRequest.of(0, 10))).isNull();
+        assertThat(listedUsernames(API_1_0_USERS)).containsExactly("user1");
+        userReadModel.rebuild();
+        assertThat(userReadModel.page(null, PageRequest.of(0, 10))).isNotNull();
+    }
+
+    private List<Object> listedUsernames(String path) {
+        return getPage(path).getContent().stream().map(user -> user.get("username")).collect(Collectors.toList());
+    }
+
+    private TestPage<Map<String, Object>> getPage(String path) {
+        return testRestTemplate.exchange(path, HttpMethod.GET, null, new ParameterizedTypeReference<TestPage<Map<String, Object>>>() {}).getBody();
+    }
+}
@@ -2,15 +2,19 @@ package com.hoaxify;
 
 import com.hoaxify.user.User;
 import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UsernameNormalizer;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @RunWith(SpringRunner.class)
 @DataJpaTest
@@ -23,6 +27,9 @@ public class UserRepositoryTest {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     @Test
     public void findByUsername_whenUserExists_returnsUser() {
         User user = TestUtil.createValidUser();
@@ -40,4 +47,28 @@ public class UserRepositoryTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void findByNormalizedUsername_whenUsernameDiffersInCase_returnsUser() {
+        testEntityManager.persist(TestUtil.createValidUser("Test-User"));
+
+        User inDB = userRepository.findByNormalizedUsername(UsernameNormalizer.normalize("tEST-uSER"));
+
+        assertThat(inDB.getUsername()).isEqualTo("Test-User");
+    }
+
+    @Test
+    public void save_whenNormalizedUsernameIsTaken_isRejectedByUniqueIndex() {
+        userRepository.saveAndFlush(TestUtil.createValidUser("test-user"));
+
+        assertThatThrownBy(() -> userRepository.saveAndFlush(TestUtil.createValidUser("TEST-USER")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    public void findByNormalizedUsername_isServedByUniqueIndex() {
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT * FROM user WHERE normalized_username = 'test-user'", String.class));
+
+        assertThat(plan).containsIgnoringCase("USER_NORMALIZED_USERNAME").doesNotContain("tableScan");
+    }
+}
@@ -0,0 +1,286 @@
+package com.hoaxify;
+
+import com.hoaxify.budget.RequestBudget;
+import com.hoaxify.budget.RequestBudgetRule;
+import com.hoaxify.budget.RequestCosts;
+import com.hoaxify.error.ApiError;
+import com.hoaxify.user.User;
+import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UserService;
+import com.hoaxify.user.vm.UserUpdateVM;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class UserUpdateTest {
+
+    private static final String API_1_0_USERS = "/api/1.0/users";
+
+    @Rule
+    public RequestBudgetRule requestBudgets = new RequestBudgetRule();
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserService userService;
+
+    @Before
+    public void cleanUp() {
+        userRepository.deleteAll();
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+    }
+
+    @Test
+    public void putUser_whenUnauthorized_receiveUnauthorized() {
+        User user = userService.save(TestUtil.createValidUser("user1"));
+
+        ResponseEntity<Object> response = putUser(user.getId(), update("new-display"), null, Object.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    public void putUser_whenUpdatingAnotherUser_receiveForbidden() {
+        userService.save(TestUtil.createValidUser("user1"));
+        User other = userService.save(TestUtil.createValidUser("user2"));
+        authenticate("user1");
+
+        ResponseEntity<Object> response = putUser(other.getId(), update("new-display"), null, Object.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(userRepository.findByUsername("user2").getDisplayName()).isEqualTo("test-display");
+    }
+
+    @Test
+    public void putUser_whenDisplayNameIsTooShort_receiveBadRequest() {
+        User user = userService.save(TestUtil.createValidUser("user1"));
+        authenticate("user1");
+
+        ResponseEntity<ApiError> response = putUser(user.getId(), update("abc"), null, ApiError.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody().getValidationErrors()).containsKey("displayName");
+    }
+
+    @Test
+    public void putUser_whenValid_receiveUpdatedUserAndUpdatesOnlyGivenFields() {
+        User user = TestUtil.createValidUser("user1");
+        user.setImage("profile.png");
+        user = userService.save(user);
+        authenticate("user1");
+
+        ResponseEntity<Map<String, Object>> response = putUser(user.getId(), update("new-display"), null, new ParameterizedTypeReference<>() {});
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().get("displayName")).isEqualTo("new-display");
+        User inDB = userRepository.findByUsername("user1");
+        assertThat(inDB.getDisplayName()).isEqualTo("new-display");
+        assertThat(inDB.getImage()).isEqualTo("profile.png");
+        assertThat(inDB.getVersion()).isEqualTo(user.getVersion() + 1);
+    }
+
+    // authentication, the read, the change log entry and the update
+    @Test
+    @RequestBudget(method = "PUT", path = API_1_0_USERS + "/*", maxStatements = 4)
+    public void putUser_whenValid_writesOnlyChangedColumns() throws InterruptedException {
+        User user = userService.save(TestUtil.createValidUser("user1"));
+        authenticate("user1");
+        RequestCosts.clear();
+
+        putUser(user.getId(), update("new-display"), null, Object.class);
+
+        String updateStatement = statementsOf("PUT").stream()
+                .filter(sql -> sql.toLowerCase().startsWith("update user "))
+                .findFirst().orElseThrow();
+        assertThat(updateStatement.toLowerCase()).contains("display_name", "version").doesNotContain("password", "username", "image");
+    }
+
+    @Test
+    public void putUser_whenIfMatchIsCurrent_receiveOkWithNewETag() {
+        User user = userService.save(TestUtil.createValidUser("user1"));
+        String etag = getUser("user1").getHeaders().getETag();
+        authenticate("user1");
+
+        ResponseEntity<Object> response = putUser(user.getId(), update("new-display"), etag, Object.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    public void putUser_whenIfMatchIsStale_receiveConflictAndKeepsNewerChange() {
+        User user = userService.save(TestUtil.createValidUser("user1"));
+        String etag = getUser("user1").getHeaders().getETag();
+        authenticate("user1");
+        putUser(user.getId(), update("first-edit"), etag, Object.class);
+
+        ResponseEntity<ApiError> response = putUser(user.getId(), update("second-edit"), etag, ApiError.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(userRepository.findByUsername("user1").getDisplayName()).isEqualTo("first-edit");
+    }
+
+    @Test
+    public void putUser_whenProfileWasCached_getUserReturnsUpdatedProfile() {
+        User user = userService.save(TestUtil.createValidUser("user1"));
+        getUser("user1");
+        authenticate("user1");
+
+        putUser(user.getId(), update("new-display"), null, Object.class);
+
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+        assertThat(getUser("user1").getBody().get("displayName")).isEqualTo("new-display");
+    }
+
+    // Every writer starts from the same ETag: exactly one may win, however the requests interleave.
+    @Test
+    public void putUser_whenConcurrentUpdatesShareIfMatch_onlyOneSucceeds() throws Exception {
+        User user = userService.save(TestUtil.createValidUser("user1"));
+        String etag = getUser("user1").getHeaders().getETag();
+        authenticate("user1");
+
+        List<HttpStatus> statuses = concurrently(8, 1, (writer, attempt) ->
+                putUser(user.getId(), update("writer-" + writer), etag, Object.class).getStatusCode());
+
+        assertThat(statuses).filteredOn(HttpStatus.OK::equals).hasSize(1);
+        assertThat(statuses).filteredOn(HttpStatus.CONFLICT::equals).hasSize(7);
+        assertThat(userRepository.findByUsername("user1").getVersion()).isEqualTo(user.getVersion() + 1);
+    }
+
+    // Without If-Match a writer only loses when another commits between its read and its write; no
+    // accepted update may be lost, so the version counts exactly the successful requests.
+    @Test
+    public void putUser_whenManyConcurrentUpdates_versionCountsEverySuccessfulUpdate() throws Exception {
+        User user = userService.save(TestUtil.createValidUser("user1"));
+        authenticate("user1");
+        Set<String> written = ConcurrentHashMap.newKeySet();
+
+        List<HttpStatus> statuses = concurrently(4, 10, (writer, attempt) -> {
+            String displayName = "writer-" + writer + "-" + attempt;
+            HttpStatus status = putUser(user.getId(), update(displayName), null, Object.class).getStatusCode();
+            if (status == HttpStatus.OK) {
+                written.add(displayName);
+            }
+            return status;
+        });
+
+        assertThat(statuses).containsOnly(HttpStatus.OK, HttpStatus.CONFLICT);
+        long succeeded = statuses.stream().filter(HttpStatus.OK::equals).count();
+        User inDB = userRepository.findByUsername("user1");
+        assertThat(inDB.getVersion()).isEqualTo(user.getVersion() + succeeded);
+        assertThat(written).contains(inDB.getDisplayName());
+        testRestTemplate.getRestTemplate().getInterceptors().clear();
+        assertThat(getUser("user1").getBody().get("displayName")).isEqualTo(inDB.getDisplayName());
+    }
+
+    private interface Writer {
+        HttpStatus write(int writer, int attempt);
+    }
+
+    private static List<HttpStatus> concurrently(int writers, int attempts, Writer writer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<HttpStatus>>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int id = w;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<HttpStatus> statuses = new ArrayList<>();
+                    for (int attempt = 0; attempt < attempts; attempt++) {
+                        statuses.add(writer.write(id, attempt));
+                    }
+                    return statuses;
+                }));
+            }
+            start.countDown();
+            List<HttpStatus> statuses = new ArrayList<>();
+            for (Future<List<HttpStatus>> future : futures) {
+                statuses.addAll(future.get(60, TimeUnit.SECONDS));
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<String> statementsOf(String method) throws InterruptedException {
+        AtomicInteger waited = new AtomicInteger();
+        while (waited.getAndIncrement() < 200) {
+            List<String> statements = RequestCosts.recorded().stream()
+                    .filter(cost -> cost.getMethod().equals(method))
+                    .flatMap(cost -> cost.getStatements().stream())
+                    .collect(Collectors.toList());
+            if (!statements.isEmpty()) {
+                return statements;
+            }
+            Thread.sleep(10);
+        }
+        return List.of();
+    }
+
+    private static UserUpdateVM update(String displayName) {
+        UserUpdateVM update = new UserUpdateVM();
+        update.setDisplayName(displayName);
+        return update;
+    }
+
+    private <T> ResponseEntity<T> putUser(long id, UserUpdateVM update, String ifMatch, Class<T> responseType) {
+        return testRestTemplate.exchange(API_1_0_USERS + "/" + id, HttpMethod.PUT, new HttpEntity<>(update, ifMatch(ifMatch)), responseType);
+    }
+
+    private <T> ResponseEntity<T> putUser(long id, UserUpdateVM update, String ifMatch, ParameterizedTypeReference<T> responseType) {
+        return testRestTemplate.exchange(API_1_0_USERS + "/" + id, HttpMethod.PUT, new HttpEntity<>(update, ifMatch(ifMatch)), responseType);
+    }
+
+    private static HttpHeaders ifMatch(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null) {
+            headers.setIfMatch(etag);
+        }
+        return headers;
+    }
+
+    private ResponseEntity<Map<String, Object>> getUser(String username) {
+        return testRestTemplate.exchange(API_1_0_USERS + "/" + username, HttpMethod.GET, null, new ParameterizedTypeReference<>() {});
+    }
+
+    private void authenticate(String username) {
+        testRestTemplate.getRestTemplate().getInterceptors().add(new BasicAuthenticationInterceptor(username, "P4ssword"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.hoaxify;
+
+import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UsernameNormalizer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Not a test: run the main method to check that case-insensitive username lookups stay on the unique index
+// with a million users, against the lower(username) query the normalized column replaces.
+public class UsernameLookupBenchmark {
+
+    private static final int USERS = 1_000_000;
+
+    private static final int LOOKUPS = 20_000;
+
+    private static final int SCANS = 20;
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HoaxifyApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=warn")
+                .run(args)) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            UserRepository userRepository = context.getBean(UserRepository.class);
+
+            jdbcTemplate.update("INSERT INTO user (id, username, normalized_username, display_name, password, updated_at) "
+                    + "SELECT x, 'User' || x, 'user' || x, 'display', 'x', 0 FROM SYSTEM_RANGE(1, " + USERS + ")");
+            System.out.printf("%,d users%n", jdbcTemplate.queryForObject("SELECT count(*) FROM user", Long.class));
+            for (String plan : jdbcTemplate.queryForList("EXPLAIN SELECT * FROM user WHERE normalized_username = 'user1'", String.class)) {
+                System.out.println("normalized: " + plan.replace('\n', ' '));
+            }
+            for (String plan : jdbcTemplate.queryForList("EXPLAIN SELECT * FROM user WHERE lower(username) = 'user1'", String.class)) {
+                System.out.println("lower():    " + plan.replace('\n', ' '));
+            }
+
+            for (int round = 1; round <= 2; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++) {
+                    String username = "USER" + ThreadLocalRandom.current().nextInt(1, USERS + 1);
+                    if (userRepository.findByNormalizedUsername(UsernameNormalizer.normalize(username)) == null) {
+                        throw new IllegalStateException(username + " not found");
+                    }
+                }
+                report("findByNormalizedUsername", round, LOOKUPS, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (int i = 0; i < SCANS; i++) {
+                    String username = "USER" + ThreadLocalRandom.current().nextInt(1, USERS + 1);
+                    jdbcTemplate.queryForList("SELECT id FROM user WHERE lower(username) = lower(?)", Long.class, username);
+                }
+                report("lower(username) = lower(?)", round, SCANS, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static void report(String query, int round, int lookups, long nanos) {
+        System.out.printf("round %d, %s: %,d lookups, %,.1f us/lookup%n", round, query, lookups, nanos / 1000.0 / lookups);
+    }
+}
@@ -0,0 +1,82 @@
+package com.hoaxify.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+// Not a test: run the main method to measure what recording a login attempt costs the authenticating
+// thread, against a synchronous insert per attempt into an in-memory H2 table.
+public class LoginAuditBenchmark {
+
+    private static final int THREADS = 4;
+
+    private static final int EVENTS_PER_THREAD = 250_000;
+
+    public static void main(String[] args) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("user1", null);
+        authentication.setDetails(new WebAuthenticationDetails(request));
+        AuthenticationSuccessEvent event = new AuthenticationSuccessEvent(authentication);
+
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource("jdbc:h2:mem:login-audit-benchmark", "sa", "", true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE login_attempt (id IDENTITY, timestamp BIGINT, outcome TINYINT, username VARCHAR(255), remote_address VARCHAR(64))");
+
+        for (int round = 1; round <= 3; round++) {
+            Path directory = Files.createTempDirectory("login-audit-benchmark");
+            LoginAuditLog auditLog = new LoginAuditLog(new SimpleMeterRegistry(), directory.toString(), 65536, 64 << 20, 4, Duration.ofSeconds(1), "benchmark");
+            auditLog.start();
+            long begin = System.nanoTime();
+            run("round " + round + ", ring buffer", auditLog::onSuccess, event);
+            auditLog.stop();
+            long drainedNanos = System.nanoTime() - begin;
+            long written = LoginAuditReader.readAll(directory).size();
+            System.out.printf("    %,d written to segments at %,.0f records/s, %,d dropped with the buffer full%n",
+                    written, written / (drainedNanos / 1e9), (long) THREADS * EVENTS_PER_THREAD - written);
+
+            jdbcTemplate.execute("TRUNCATE TABLE login_attempt");
+            run("round " + round + ", insert per attempt", e -> {
+                synchronized (jdbcTemplate) {
+                    jdbcTemplate.update("INSERT INTO login_attempt (timestamp, outcome, username, remote_address) VALUES (?, ?, ?, ?)",
+                            System.currentTimeMillis(), 0, e.getAuthentication().getName(), "10.0.0.1");
+                }
+            }, event);
+        }
+    }
+
+    private static void run(String name, Consumer<AuthenticationSuccessEvent> record, AuthenticationSuccessEvent event) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    record.accept(event);
+                }
+                done.countDown();
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        long events = (long) THREADS * EVENTS_PER_THREAD;
+        System.out.printf("%-36s %,12.0f events/s  %8.1f ns/event on the calling threads%n", name, events / (elapsed / 1e9), (double) elapsed / events);
+    }
+}
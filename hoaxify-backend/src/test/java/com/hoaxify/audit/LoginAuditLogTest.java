@@ -0,0 +1,36 @@
+package com.hoaxify.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoginAuditLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void record_whenDrainThreadFailedToStart_dropsAttempts() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LoginAuditLog auditLog = new LoginAuditLog(meterRegistry, folder.getRoot().getPath(), 16, 4096, 2, Duration.ofMillis(10), "not a valid id");
+        auditLog.start();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (auditLog.record(attempt()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(auditLog.record(attempt())).isFalse();
+        assertThat(meterRegistry.counter("hoaxify.login-audit.dropped").count()).isGreaterThan(0);
+        auditLog.stop();
+    }
+
+    private static LoginAttempt attempt() {
+        return new LoginAttempt(System.currentTimeMillis(), LoginAttempt.Outcome.SUCCESS, "user1", "127.0.0.1");
+    }
+}
@@ -0,0 +1,98 @@
+package com.hoaxify.audit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoginAuditSegmentWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void append_recordsCanBeReadBack() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        LoginAttempt attempt = new LoginAttempt(1234567890L, LoginAttempt.Outcome.BAD_CREDENTIALS, "üser-1", "0:0:0:0:0:0:0:1");
+
+        try (LoginAuditSegmentWriter writer = new LoginAuditSegmentWriter(directory, 4096, 10, "node-1")) {
+            writer.append(attempt);
+        }
+
+        assertThat(LoginAuditReader.readAll(directory)).containsExactly(attempt);
+    }
+
+    @Test
+    public void append_whenSegmentIsFull_continuesInNextSegment() throws Exception {
+        Path directory = folder.getRoot().toPath();
+
+        try (LoginAuditSegmentWriter writer = new LoginAuditSegmentWriter(directory, 256, 100, "node-1")) {
+            for (int i = 0; i < 50; i++) {
+                writer.append(attempt(i));
+            }
+        }
+
+        assertThat(LoginAuditReader.segments(directory).size()).isGreaterThan(1);
+        assertThat(LoginAuditReader.readAll(directory)).extracting(LoginAttempt::getTimestamp)
+                .containsExactlyElementsOf(LongStream.range(0, 50).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void append_whenMoreThanMaxSegments_deletesOldestSegments() throws Exception {
+        Path directory = folder.getRoot().toPath();
+
+        try (LoginAuditSegmentWriter writer = new LoginAuditSegmentWriter(directory, 256, 2, "node-1")) {
+            for (int i = 0; i < 50; i++) {
+                writer.append(attempt(i));
+            }
+        }
+
+        List<LoginAttempt> remaining = LoginAuditReader.readAll(directory);
+        assertThat(LoginAuditReader.segments(directory)).hasSize(2);
+        assertThat(remaining.get(remaining.size() - 1).getTimestamp()).isEqualTo(49);
+        assertThat(remaining.get(0).getTimestamp()).isGreaterThan(0);
+    }
+
+    @Test
+    public void append_whenWriterRestarts_startsNewSegmentAfterExistingOnes() throws Exception {
+        Path directory = folder.getRoot().toPath();
+
+        try (LoginAuditSegmentWriter writer = new LoginAuditSegmentWriter(directory, 4096, 10, "node-1")) {
+            writer.append(attempt(1));
+        }
+        try (LoginAuditSegmentWriter writer = new LoginAuditSegmentWriter(directory, 4096, 10, "node-1")) {
+            writer.append(attempt(2));
+        }
+
+        assertThat(LoginAuditReader.segments(directory)).hasSize(2);
+        assertThat(LoginAuditReader.readAll(directory)).extracting(LoginAttempt::getTimestamp).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void append_whenAnotherWriterSharesDirectory_deletesOnlyOwnSegments() throws Exception {
+        Path directory = folder.getRoot().toPath();
+
+        try (LoginAuditSegmentWriter other = new LoginAuditSegmentWriter(directory, 256, 2, "node-2")) {
+            other.append(attempt(0));
+        }
+        try (LoginAuditSegmentWriter writer = new LoginAuditSegmentWriter(directory, 256, 2, "node-1")) {
+            for (int i = 1; i < 50; i++) {
+                writer.append(attempt(i));
+            }
+        }
+
+        assertThat(LoginAuditReader.segments(directory)).extracting(LoginAuditReader::segmentWriter)
+                .containsExactly("node-2", "node-1", "node-1");
+        assertThat(LoginAuditReader.readAll(directory).get(0).getTimestamp()).isEqualTo(0);
+    }
+
+    private LoginAttempt attempt(long timestamp) {
+        return new LoginAttempt(timestamp, LoginAttempt.Outcome.SUCCESS, "user" + timestamp, "127.0.0.1");
+    }
+}
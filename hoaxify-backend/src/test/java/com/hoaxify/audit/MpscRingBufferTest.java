@@ -0,0 +1,69 @@
+package com.hoaxify.audit;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MpscRingBufferTest {
+
+    @Test
+    public void offer_whenBufferIsFull_refuses() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        assertThat(buffer.offer(4)).isFalse();
+    }
+
+    @Test
+    public void poll_returnsElementsInOfferOrderAndFreesSlots() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(2);
+        for (int i = 0; i < 10; i++) {
+            buffer.offer(i);
+            assertThat(buffer.poll()).isEqualTo(i);
+        }
+
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    public void poll_whenManyProducersOffer_receivesEveryElementOnceInPerProducerOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(1024);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(new long[]{producer, i})) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] next = new long[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            long[] element = buffer.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertThat(element[1]).isEqualTo(next[(int) element[0]]);
+            next[(int) element[0]]++;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(buffer.poll()).isNull();
+    }
+}
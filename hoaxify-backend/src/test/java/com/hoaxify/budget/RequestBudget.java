@@ -0,0 +1,30 @@
+package com.hoaxify.budget;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most a request may cost the server thread that handles it, checked by {@link RequestBudgetRule}
+ * for every matching request the test makes. A test with a budget but no matching request fails, so
+ * a budget cannot silently stop applying.
+ *
+ * The first request to a handler in the JVM allocates several MB loading classes, so the allocation
+ * budget only applies to later requests; a test with an allocation budget makes its request twice.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Repeatable(RequestBudgets.class)
+public @interface RequestBudget {
+
+    String method() default "GET";
+
+    // an Ant-style pattern matched against the request URI, without the query string
+    String path();
+
+    int maxStatements() default Integer.MAX_VALUE;
+
+    long maxAllocatedKb() default Long.MAX_VALUE;
+}
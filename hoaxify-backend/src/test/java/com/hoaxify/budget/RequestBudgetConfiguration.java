@@ -0,0 +1,38 @@
+package com.hoaxify.budget;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Lives with the tests, so component scanning adds it to every test application context and never
+ * to the application itself.
+ */
+@Configuration
+public class RequestBudgetConfiguration {
+
+    @Bean
+    public static BeanPostProcessor statementRecordingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // the one data source JPA and JdbcTemplate use, whether or not it routes to a replica
+                if (bean instanceof DataSource && beanName.equals("dataSource")) {
+                    return new StatementRecordingDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestCostFilter> requestCostFilter() {
+        FilterRegistrationBean<RequestCostFilter> registration = new FilterRegistrationBean<>(new RequestCostFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
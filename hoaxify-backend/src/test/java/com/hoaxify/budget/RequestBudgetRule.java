@@ -0,0 +1,100 @@
+package com.hoaxify.budget;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Fails a test when a request it made went over a {@link RequestBudget} on the test method.
+ *
+ * <pre>
+ * &#64;Rule
+ * public RequestBudgetRule requestBudgets = new RequestBudgetRule();
+ *
+ * &#64;Test
+ * &#64;RequestBudget(path = "/api/1.0/users", maxStatements = 2, maxAllocatedKb = 256)
+ * public void getUsers_...
+ * </pre>
+ */
+public class RequestBudgetRule implements TestRule {
+
+    // the server records a request after its response is written, so the client can be ahead
+    private static final long RECORD_WAIT_MILLIS = 2000;
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    @Override
+    public Statement apply(Statement base, Description description) {
+        List<RequestBudget> budgets = budgets(description);
+        if (budgets.isEmpty()) {
+            return base;
+        }
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                RequestCosts.startRecording();
+                try {
+                    base.evaluate();
+                    for (RequestBudget budget : budgets) {
+                        verify(budget);
+                    }
+                } finally {
+                    RequestCosts.stopRecording();
+                }
+            }
+        };
+    }
+
+    private static List<RequestBudget> budgets(Description description) {
+        List<RequestBudget> budgets = new ArrayList<>();
+        RequestBudget budget = description.getAnnotation(RequestBudget.class);
+        if (budget != null) {
+            budgets.add(budget);
+        }
+        RequestBudgets repeated = description.getAnnotation(RequestBudgets.class);
+        if (repeated != null) {
+            budgets.addAll(Arrays.asList(repeated.value()));
+        }
+        return budgets;
+    }
+
+    private static void verify(RequestBudget budget) throws InterruptedException {
+        List<RequestCost> costs = matching(budget);
+        long deadline = System.currentTimeMillis() + RECORD_WAIT_MILLIS;
+        while (costs.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            costs = matching(budget);
+        }
+        if (costs.isEmpty()) {
+            throw new AssertionError("The test made no " + budget.method() + " " + budget.path() + " request for its budget to apply to");
+        }
+        if (budget.maxAllocatedKb() != Long.MAX_VALUE && costs.stream().noneMatch(RequestCost::isWarm)) {
+            throw new AssertionError("Every " + budget.method() + " " + budget.path() + " request was the first to its handler in this JVM;"
+                    + " make the request once more for the allocation budget to apply to");
+        }
+        for (RequestCost cost : costs) {
+            if (cost.getStatements().size() > budget.maxStatements()) {
+                throw new AssertionError(String.format("%s %s ran %d statements, over its budget of %d:%n  %s",
+                        cost.getMethod(), cost.getUri(), cost.getStatements().size(), budget.maxStatements(),
+                        String.join(System.lineSeparator() + "  ", cost.getStatements())));
+            }
+            long allocatedKb = cost.getAllocatedBytes() / 1024;
+            if (cost.isWarm() && allocatedKb > budget.maxAllocatedKb()) {
+                throw new AssertionError(String.format("%s %s allocated %,d KB on its request thread, over its budget of %,d KB",
+                        cost.getMethod(), cost.getUri(), allocatedKb, budget.maxAllocatedKb()));
+            }
+        }
+    }
+
+    private static List<RequestCost> matching(RequestBudget budget) {
+        return RequestCosts.recorded().stream()
+                .filter(cost -> cost.getMethod().equals(budget.method()) && PATHS.match(budget.path(), cost.getUri()))
+                .collect(Collectors.toList());
+    }
+}
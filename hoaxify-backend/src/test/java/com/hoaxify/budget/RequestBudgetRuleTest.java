@@ -0,0 +1,89 @@
+package com.hoaxify.budget;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RequestBudgetRuleTest {
+
+    RequestBudgetRule rule = new RequestBudgetRule();
+
+    @Before
+    public void setUp() {
+        RequestCosts.clear();
+    }
+
+    @Test
+    public void apply_whenRequestsStayWithinBudget_passes() {
+        assertThatCode(() -> run("pageBudget", new RequestCost("GET", "/api/1.0/users", List.of("select", "count"), 100 * 1024, true)))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    public void apply_whenRequestRunsTooManyStatements_failsListingThem() {
+        assertThatThrownBy(() -> run("pageBudget", new RequestCost("GET", "/api/1.0/users", List.of("select 1", "select 2", "select 3"), 0, true)))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("ran 3 statements, over its budget of 2")
+                .hasMessageContaining("select 3");
+    }
+
+    @Test
+    public void apply_whenWarmRequestAllocatesTooMuch_fails() {
+        assertThatThrownBy(() -> run("pageBudget", new RequestCost("GET", "/api/1.0/users", List.of(), 300 * 1024, true)))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("allocated 300 KB");
+    }
+
+    @Test
+    public void apply_whenColdRequestAllocatesTooMuch_ignoresItButNeedsAWarmRequest() {
+        RequestCost cold = new RequestCost("GET", "/api/1.0/users", List.of(), 8 * 1024 * 1024, false);
+
+        assertThatThrownBy(() -> run("pageBudget", cold)).hasMessageContaining("make the request once more");
+        assertThatCode(() -> run("pageBudget", cold, new RequestCost("GET", "/api/1.0/users", List.of(), 1024, true)))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    public void apply_whenNoRequestMatches_fails() {
+        assertThatThrownBy(() -> run("profileBudget", new RequestCost("GET", "/api/1.0/users", List.of(), 0, true)))
+                .hasMessageContaining("made no GET /api/1.0/users/* request");
+    }
+
+    @Test
+    public void end_whenNoBudgetIsBeingChecked_keepsNothing() throws Throwable {
+        RequestCosts.end(new RequestCost("GET", "/api/1.0/users", List.of("select"), 0, true));
+        assertThat(RequestCosts.recorded()).isEmpty();
+
+        run("pageBudget", new RequestCost("GET", "/api/1.0/users", List.of("select"), 0, true));
+        assertThat(RequestCosts.recorded()).isEmpty();
+    }
+
+    @RequestBudget(path = "/api/1.0/users", maxStatements = 2, maxAllocatedKb = 256)
+    void pageBudget() {
+    }
+
+    @RequestBudget(path = "/api/1.0/users/*", maxStatements = 1)
+    void profileBudget() {
+    }
+
+    private void run(String budgetMethod, RequestCost... costs) throws Throwable {
+        Annotation budget = getClass().getDeclaredMethod(budgetMethod).getAnnotation(RequestBudget.class);
+        Description description = Description.createTestDescription(getClass(), budgetMethod, budget);
+        rule.apply(new Statement() {
+            @Override
+            public void evaluate() {
+                for (RequestCost cost : costs) {
+                    RequestCosts.end(cost);
+                }
+            }
+        }, description).evaluate();
+    }
+}
@@ -0,0 +1,20 @@
+package com.hoaxify.budget;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class RequestCost {
+
+    String method;
+
+    String uri;
+
+    List<String> statements;
+
+    long allocatedBytes;
+
+    // false for the first request to its handler in this JVM, which also pays for class loading and lazy initialization
+    boolean warm;
+}
@@ -0,0 +1,32 @@
+package com.hoaxify.budget;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+public class RequestCostFilter extends OncePerRequestFilter {
+
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long threadId = Thread.currentThread().getId();
+        List<String> statements = RequestCosts.begin();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            boolean warm = !RequestCosts.firstRequestTo(request.getMethod() + " " + (pattern == null ? request.getRequestURI() : pattern));
+            RequestCosts.end(new RequestCost(request.getMethod(), request.getRequestURI(), List.copyOf(statements), allocated, warm));
+        }
+    }
+}
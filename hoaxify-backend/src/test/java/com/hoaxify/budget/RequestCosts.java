@@ -0,0 +1,70 @@
+package com.hoaxify.budget;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * What requests served by this JVM cost, filled in by {@link RequestCostFilter} and
+ * {@link StatementRecordingDataSource}. Statements are attributed to the request running on the
+ * thread that executes them; work handed to other threads is not counted. Costs are only kept while a
+ * {@link RequestBudgetRule} is checking a test, so the rest of the suite does not pile up here.
+ */
+public final class RequestCosts {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    private static final List<RequestCost> RECORDED = new CopyOnWriteArrayList<>();
+
+    private static final Set<String> HANDLERS_SEEN = ConcurrentHashMap.newKeySet();
+
+    private static volatile boolean recording;
+
+    private RequestCosts() {
+    }
+
+    public static List<RequestCost> recorded() {
+        return RECORDED;
+    }
+
+    public static void clear() {
+        RECORDED.clear();
+    }
+
+    static void startRecording() {
+        RECORDED.clear();
+        recording = true;
+    }
+
+    static void stopRecording() {
+        recording = false;
+        RECORDED.clear();
+    }
+
+    static List<String> begin() {
+        List<String> statements = new ArrayList<>();
+        STATEMENTS.set(statements);
+        return statements;
+    }
+
+    static void statement(String sql) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+    }
+
+    // true the first time a handler is seen in this JVM; not reset by clear()
+    static boolean firstRequestTo(String handler) {
+        return HANDLERS_SEEN.add(handler);
+    }
+
+    static void end(RequestCost cost) {
+        STATEMENTS.remove();
+        if (recording) {
+            RECORDED.add(cost);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.hoaxify.budget;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hands out connections that report each statement to {@link RequestCosts}: a prepared statement when
+ * it is prepared, so a JDBC batch counts once, and a plain statement each time it executes SQL.
+ */
+public class StatementRecordingDataSource extends DelegatingDataSource {
+
+    public StatementRecordingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return recording(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return recording(super.getConnection(username, password));
+    }
+
+    private static Connection recording(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            String name = method.getName();
+            if ((name.equals("prepareStatement") || name.equals("prepareCall")) && args[0] instanceof String) {
+                RequestCosts.statement((String) args[0]);
+            }
+            Object result = invoke(connection, method, args);
+            return name.equals("createStatement") ? recording((Statement) result) : result;
+        });
+    }
+
+    private static Statement recording(Statement statement) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class}, (proxy, method, args) -> {
+            if (method.getName().startsWith("execute") && args != null && args[0] instanceof String) {
+                RequestCosts.statement((String) args[0]);
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
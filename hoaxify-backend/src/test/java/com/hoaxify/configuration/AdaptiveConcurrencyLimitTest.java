@@ -0,0 +1,83 @@
+package com.hoaxify.configuration;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void tryAcquire_whenLimitIsReached_rejects() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 2.0);
+        limit.tryAcquire();
+        limit.tryAcquire();
+
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    public void release_whenLatencyExceedsTolerance_decreasesLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 100, 2.0);
+        complete(limit, 1, FAST);
+        complete(limit, 1, SLOW);
+
+        assertThat(limit.getLimit()).isLessThan(20);
+    }
+
+    @Test
+    public void release_whenLatencyIsStableUnderLoad_increasesLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 100, 2.0);
+        for (int i = 0; i < 100; i++) {
+            complete(limit, 4, FAST);
+        }
+
+        assertThat(limit.getLimit()).isGreaterThan(4);
+    }
+
+    @Test
+    public void release_whenLatencyIsStableWithoutLoad_keepsLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 100, 2.0);
+        for (int i = 0; i < 100; i++) {
+            complete(limit, 1, FAST);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    public void release_whenLatencyStaysHigh_neverGoesBelowMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 3, 100, 2.0);
+        complete(limit, 1, FAST);
+        for (int i = 0; i < 100; i++) {
+            complete(limit, 1, SLOW);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    public void release_withoutSample_freesSlotAndKeepsLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 10, 2.0);
+        limit.tryAcquire();
+        limit.release();
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.getLimit()).isEqualTo(1);
+    }
+
+    private void complete(AdaptiveConcurrencyLimit limit, int concurrent, long latencyNanos) {
+        for (int i = 0; i < concurrent; i++) {
+            limit.tryAcquire();
+        }
+        for (int i = 0; i < concurrent; i++) {
+            limit.release(latencyNanos);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.hoaxify.configuration;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BufferedBodyRequestTest {
+
+    @Test
+    public void setReadListener_readsWholeBodyThenSignalsAllDataRead() {
+        byte[] body = "{\"username\":\"user1\"}".getBytes(StandardCharsets.UTF_8);
+        ServletInputStream in = new IdempotencyKeyFilter.BufferedBodyRequest(new MockHttpServletRequest(), body).getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        StringBuilder calls = new StringBuilder();
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                calls.append("available;");
+                byte[] buffer = new byte[4];
+                while (in.isReady() && !in.isFinished()) {
+                    read.write(buffer, 0, in.read(buffer));
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                calls.append("allRead;");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                calls.append("error;");
+            }
+        });
+
+        assertThat(read.toByteArray()).isEqualTo(body);
+        assertThat(calls.toString()).isEqualTo("available;allRead;");
+    }
+}
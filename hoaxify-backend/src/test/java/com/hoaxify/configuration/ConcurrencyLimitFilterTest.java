@@ -0,0 +1,59 @@
+package com.hoaxify.configuration;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimitFilterTest {
+
+    @Test
+    public void doFilter_whenFastRejectionsMixWithSlowSuccesses_keepsLimit() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 100, 10.0);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(Collections.singletonMap(ConcurrencyLimitFilter.AUTH, limit));
+        FilterChain unauthorized = (request, response) -> ((MockHttpServletResponse) response).setStatus(HttpStatus.UNAUTHORIZED.value());
+        FilterChain slowSuccess = (request, response) -> sleep(20);
+
+        for (int i = 0; i < 10; i++) {
+            filter.doFilter(loginRequest(), new MockHttpServletResponse(), unauthorized);
+            filter.doFilter(loginRequest(), new MockHttpServletResponse(), slowSuccess);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    public void doFilter_whenChainThrows_freesSlot() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 10, 2.0);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(Collections.singletonMap(ConcurrencyLimitFilter.AUTH, limit));
+        try {
+            filter.doFilter(loginRequest(), new MockHttpServletResponse(), (request, response) -> {
+                throw new IllegalStateException();
+            });
+        } catch (Exception expected) {
+        }
+
+        assertThat(limit.getInFlight()).isZero();
+        assertThat(limit.getLimit()).isEqualTo(1);
+    }
+
+    private MockHttpServletRequest loginRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/1.0/login");
+        request.setServletPath("/api/1.0/login");
+        return request;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.hoaxify.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdempotencyKeyFilterTest {
+
+    Cache<String, IdempotencyKeyFilter.Execution> executions = Caffeine.newBuilder().build();
+
+    IdempotencyKeyFilter filter = new IdempotencyKeyFilter(executions, Duration.ofMillis(50).toNanos(), new SimpleMeterRegistry());
+
+    @Test
+    public void doFilter_whenFirstRequestOutlastsWaitTimeout_answersConflictWithRetryAfter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowSignup = (request, response) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.getOutputStream().write("saved".getBytes(StandardCharsets.UTF_8));
+        };
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> filter(slowSignup));
+        while (executions.getIfPresent("key-1") == null) {
+            Thread.sleep(1);
+        }
+
+        MockHttpServletResponse duplicate = filter((request, response) -> {
+            throw new AssertionError("a duplicate must not run");
+        });
+
+        assertThat(duplicate.getStatus()).isEqualTo(409);
+        assertThat(duplicate.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("saved");
+    }
+
+    @Test
+    public void doFilter_whenFirstRequestFinishedWithinWaitTimeout_replaysIt() throws Exception {
+        filter((request, response) -> response.getOutputStream().write("saved".getBytes(StandardCharsets.UTF_8)));
+
+        MockHttpServletResponse duplicate = filter((request, response) -> {
+            throw new AssertionError("a duplicate must not run");
+        });
+
+        assertThat(duplicate.getStatus()).isEqualTo(200);
+        assertThat(duplicate.getHeader(IdempotencyKeyFilter.IDEMPOTENT_REPLAYED)).isEqualTo("true");
+        assertThat(duplicate.getContentAsString()).isEqualTo("saved");
+    }
+
+    private MockHttpServletResponse filter(FilterChain chain) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/1.0/users");
+        request.setServletPath("/api/1.0/users");
+        request.addHeader(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "key-1");
+        request.setContent("{\"username\":\"user1\"}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+}
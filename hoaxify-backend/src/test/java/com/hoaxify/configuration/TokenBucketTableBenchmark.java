@@ -0,0 +1,56 @@
+package com.hoaxify.configuration;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Not a test: run the main method to measure TokenBucketTable throughput under contention.
+public class TokenBucketTableBenchmark {
+
+    private static final int THREADS = 64;
+
+    private static final int OPERATIONS_PER_THREAD = 200_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        String[] keys = new String[100_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            run("single hot key", 65536, new String[]{"hot-user"});
+            run("100k keys in a 64k table", 65536, keys);
+        }
+    }
+
+    private static void run(String name, int tableSize, String[] keys) throws InterruptedException {
+        TokenBucketTable table = new TokenBucketTable(tableSize, 20, Duration.ofMillis(100));
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    table.tryAcquire(keys[random.nextInt(keys.length)]);
+                }
+                done.countDown();
+            }).start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+
+        long operations = (long) THREADS * OPERATIONS_PER_THREAD;
+        System.out.printf("%-28s %,12.0f ops/s  %6.1f ns/op%n", name,
+                operations / (elapsed / 1e9), (double) elapsed / operations);
+    }
+}
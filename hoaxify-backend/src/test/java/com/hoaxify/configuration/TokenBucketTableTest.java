@@ -0,0 +1,114 @@
+package com.hoaxify.configuration;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketTableTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final TokenBucketTable table = new TokenBucketTable(8, 3, Duration.ofSeconds(1), clock::get);
+
+    @Test
+    public void tryAcquire_whenCapacityIsAvailable_allowsBurstUpToCapacity() {
+        assertThat(table.tryAcquire("user1")).isTrue();
+        assertThat(table.tryAcquire("user1")).isTrue();
+        assertThat(table.tryAcquire("user1")).isTrue();
+        assertThat(table.tryAcquire("user1")).isFalse();
+    }
+
+    @Test
+    public void tryAcquire_whenRefillPeriodPassed_allowsOneMore() {
+        drain("user1");
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        assertThat(table.tryAcquire("user1")).isTrue();
+        assertThat(table.tryAcquire("user1")).isFalse();
+    }
+
+    @Test
+    public void tryAcquire_whenAnotherKeyIsDrained_isNotAffected() {
+        drain("user1");
+        assertThat(table.tryAcquire("user2")).isTrue();
+    }
+
+    @Test
+    public void tryAcquire_whenTableIsFull_evictsFullerBucketsBeforeDrainedOnes() {
+        drain("attacker");
+        for (int i = 0; i < 100; i++) {
+            table.tryAcquire("user" + i);
+        }
+        assertThat(table.tryAcquire("attacker")).isFalse();
+    }
+
+    @Test
+    public void tryAcquire_whenThreadsRaceOnNewKeyInFullTable_shareOneBucket() throws Exception {
+        ExecutorService racers = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 200; round++) {
+                TokenBucketTable single = new TokenBucketTable(8, 1, Duration.ofSeconds(1), clock::get);
+                for (int i = 0; i < 8; i++) {
+                    single.tryAcquire("user" + i);
+                }
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> acquired = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    acquired.add(racers.submit(() -> {
+                        start.await();
+                        return single.tryAcquire("newcomer");
+                    }));
+                }
+                start.countDown();
+                int allowed = 0;
+                for (Future<Boolean> result : acquired) {
+                    allowed += result.get() ? 1 : 0;
+                }
+                assertThat(allowed).isEqualTo(1);
+            }
+        } finally {
+            racers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void refund_whenTokenWasTaken_allowsItAgain() {
+        drain("user1");
+        table.refund("user1");
+
+        assertThat(table.tryAcquire("user1")).isTrue();
+        assertThat(table.tryAcquire("user1")).isFalse();
+    }
+
+    @Test
+    public void refund_whenBucketIsFull_doesNotRaiseCapacity() {
+        table.refund("user1");
+
+        drain("user1");
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        table.refund("user1");
+        assertThat(drainCount("user1")).isEqualTo(3);
+    }
+
+    private int drainCount(String key) {
+        int taken = 0;
+        while (table.tryAcquire(key)) {
+            taken++;
+        }
+        return taken;
+    }
+
+    private void drain(String key) {
+        while (table.tryAcquire(key)) {
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.hoaxify.error;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ApiErrorTemplateTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void encode_matchesJacksonSerializationOfApiError() throws Exception {
+        ApiError apiError = new ApiError(401, "Unauthorized", "/api/1.0/login");
+
+        byte[] encoded = ApiErrorTemplate.of(HttpStatus.UNAUTHORIZED).encode(apiError.getTimestamp(), apiError.getUrl(), apiError.getTraceId());
+
+        assertThat(encoded).isEqualTo(objectMapper.writeValueAsBytes(apiError));
+    }
+
+    @Test
+    public void encode_whenUrlNeedsEscaping_matchesJacksonSerializationOfApiError() throws Exception {
+        ApiError apiError = new ApiError(429, "Too Many Requests", "/api/1.0/users/\"quoted\\\u0001\né");
+
+        byte[] encoded = ApiErrorTemplate.of(HttpStatus.TOO_MANY_REQUESTS).encode(apiError.getTimestamp(), apiError.getUrl(), apiError.getTraceId());
+
+        assertThat(encoded).isEqualTo(objectMapper.writeValueAsBytes(apiError));
+    }
+
+    @Test
+    public void encode_whenTraceIdIsSet_matchesJacksonSerializationOfApiError() throws Exception {
+        ApiError apiError = new ApiError(503, "Service Unavailable", "/api/1.0/users");
+        apiError.setTraceId("4bf92f3577b34da6a3ce929d0e0e4736");
+
+        byte[] encoded = ApiErrorTemplate.of(HttpStatus.SERVICE_UNAVAILABLE).encode(apiError.getTimestamp(), apiError.getUrl(), apiError.getTraceId());
+
+        assertThat(encoded).isEqualTo(objectMapper.writeValueAsBytes(apiError));
+    }
+
+    @Test
+    public void write_setsStatusContentTypeAndBody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/1.0/login");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ApiErrorTemplate.of(HttpStatus.FORBIDDEN).write(request, response);
+
+        ApiError apiError = objectMapper.readValue(response.getContentAsByteArray(), ApiError.class);
+        assertThat(response.getStatus()).isEqualTo(403);
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(response.getContentLength()).isEqualTo(response.getContentAsByteArray().length);
+        assertThat(apiError.getStatus()).isEqualTo(403);
+        assertThat(apiError.getMessage()).isEqualTo("Forbidden");
+        assertThat(apiError.getUrl()).isEqualTo("/api/1.0/login");
+    }
+}
@@ -0,0 +1,198 @@
+package com.hoaxify.hoax;
+
+import com.hoaxify.hoax.vm.HoaxVM;
+import com.hoaxify.user.User;
+import com.hoaxify.user.UserRepository;
+import com.hoaxify.user.UsersChangedEvent;
+import org.junit.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HoaxFeedWindowTest {
+
+    HoaxRepository hoaxRepository = mock(HoaxRepository.class);
+
+    UserRepository userRepository = mock(UserRepository.class);
+
+    long now;
+
+    @Test
+    public void page_beforeRebuild_returnsNull() {
+        HoaxFeedWindow window = window(5);
+
+        assertThat(window.page(null, 3)).isNull();
+    }
+
+    @Test
+    public void page_withoutBefore_returnsNewestFirst() {
+        HoaxFeedWindow window = rebuiltWindow(5, 20);
+
+        assertThat(ids(window.page(null, 3))).containsExactly(20L, 19L, 18L);
+    }
+
+    @Test
+    public void page_withBefore_returnsOlderHoaxes() {
+        HoaxFeedWindow window = rebuiltWindow(5, 20);
+
+        assertThat(ids(window.page(19L, 2))).containsExactly(18L, 17L);
+    }
+
+    @Test
+    public void page_whenPageReachesPastOldestEntry_returnsNull() {
+        HoaxFeedWindow window = rebuiltWindow(5, 20);
+
+        assertThat(window.page(18L, 3)).isNull();
+    }
+
+    @Test
+    public void page_whenWindowHoldsAllHoaxes_returnsShortPage() {
+        HoaxFeedWindow window = rebuiltWindow(5, 3);
+
+        assertThat(ids(window.page(3L, 10))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    public void onHoaxesSaved_whenWindowIsFull_evictsOldest() {
+        HoaxFeedWindow window = rebuiltWindow(5, 3);
+
+        window.onHoaxesSaved(new HoaxesSavedEvent(List.of(hoax(4), hoax(5), hoax(6))));
+
+        assertThat(ids(window.page(null, 5))).containsExactly(6L, 5L, 4L, 3L, 2L);
+        assertThat(window.page(3L, 2)).isNull();
+    }
+
+    @Test
+    public void onHoaxesSaved_whenHoaxIsAlreadyInWindow_ignoresIt() {
+        HoaxFeedWindow window = rebuiltWindow(5, 3);
+
+        window.onHoaxesSaved(new HoaxesSavedEvent(List.of(hoax(3))));
+
+        assertThat(ids(window.page(null, 5))).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    public void page_whenOlderThanMaxAge_returnsNull() {
+        HoaxFeedWindow window = rebuiltWindow(5, 20);
+
+        now += TimeUnit.SECONDS.toNanos(2);
+
+        assertThat(window.page(null, 3)).isNull();
+    }
+
+    @Test
+    public void refreshIfStale_whenOlderThanMaxAge_loadsHoaxesSavedElsewhere() {
+        HoaxFeedWindow window = rebuiltWindow(5, 20);
+        // saved by another node, so no HoaxesSavedEvent reached this one
+        stubNewest(5, 21);
+
+        now += TimeUnit.SECONDS.toNanos(2);
+
+        assertThat(window.refreshIfStale()).isTrue();
+        assertThat(ids(window.page(null, 3))).containsExactly(21L, 20L, 19L);
+    }
+
+    @Test
+    public void refreshIfStale_whenFresh_doesNotQuery() {
+        HoaxFeedWindow window = rebuiltWindow(5, 20);
+
+        assertThat(window.refreshIfStale()).isFalse();
+        verify(hoaxRepository, times(1)).findFeedBefore(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    public void refreshIfStale_beforeRebuild_loadsWindow() {
+        stubNewest(5, 3);
+        HoaxFeedWindow window = window(5);
+
+        assertThat(window.refreshIfStale()).isTrue();
+        assertThat(ids(window.page(null, 5))).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    public void rebuild_whenHoaxIsSavedWhileQuerying_keepsIt() {
+        HoaxFeedWindow window = rebuiltWindow(5, 20);
+        List<Hoax> newest = List.of(hoax(20), hoax(19), hoax(18), hoax(17), hoax(16));
+        // runs inside the query, so it would deadlock if the query held the write lock
+        when(hoaxRepository.findFeedBefore(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            window.onHoaxesSaved(new HoaxesSavedEvent(List.of(hoax(21))));
+            return newest;
+        });
+
+        window.rebuild();
+
+        assertThat(ids(window.page(null, 5))).containsExactly(21L, 20L, 19L, 18L, 17L);
+    }
+
+    @Test
+    public void onUsersChanged_whenAuthorIsInWindow_servesUpdatedAuthor() {
+        HoaxFeedWindow window = rebuiltWindow(5, 3);
+        User renamed = new User();
+        renamed.setId(1);
+        renamed.setDisplayName("renamed");
+        when(userRepository.findByIdIn(anyCollection())).thenReturn(List.of(renamed));
+
+        window.onUsersChanged(new UsersChangedEvent(Set.of(1), Set.of("user1")));
+
+        assertThat(window.page(null, 3)).extracting(hoax -> hoax.getUser().getDisplayName())
+                .containsOnly("renamed");
+    }
+
+    @Test
+    public void onUsersChanged_whenAuthorIsNotInWindow_doesNotQuery() {
+        HoaxFeedWindow window = rebuiltWindow(5, 3);
+
+        window.onUsersChanged(new UsersChangedEvent(Set.of(2), Set.of("user2")));
+
+        verify(userRepository, never()).findByIdIn(anyCollection());
+    }
+
+    private HoaxFeedWindow window(int windowSize) {
+        return new HoaxFeedWindow(hoaxRepository, userRepository, mock(PlatformTransactionManager.class), windowSize, Duration.ofSeconds(1), () -> now);
+    }
+
+    private HoaxFeedWindow rebuiltWindow(int windowSize, int hoaxCount) {
+        stubNewest(windowSize, hoaxCount);
+        HoaxFeedWindow window = window(windowSize);
+        window.rebuild();
+        return window;
+    }
+
+    private void stubNewest(int windowSize, int hoaxCount) {
+        List<Hoax> newest = new ArrayList<>();
+        for (int id = hoaxCount; id > 0 && newest.size() < windowSize; id--) {
+            newest.add(hoax(id));
+        }
+        when(hoaxRepository.findFeedBefore(anyLong(), any(Pageable.class))).thenReturn(newest);
+    }
+
+    private static Hoax hoax(long id) {
+        User user = new User();
+        user.setId(1);
+        Hoax hoax = new Hoax();
+        hoax.setId(id);
+        hoax.setUser(user);
+        return hoax;
+    }
+
+    private static List<Long> ids(List<HoaxVM> page) {
+        List<Long> ids = new ArrayList<>();
+        page.forEach(hoax -> ids.add(hoax.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,111 @@
+package com.hoaxify.hoax;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HoaxWriteBehindTest {
+
+    HoaxRepository hoaxRepository = mock(HoaxRepository.class);
+
+    List<Integer> flushedBatchSizes = new CopyOnWriteArrayList<>();
+
+    HoaxWriteBehind writeBehind;
+
+    @After
+    public void stop() throws InterruptedException {
+        writeBehind.stop();
+    }
+
+    @Test
+    public void offer_whenQueueIsFull_refuses() {
+        writeBehind = writeBehind(2, 10, Duration.ofHours(1));
+
+        assertThat(writeBehind.offer(new Hoax())).isTrue();
+        assertThat(writeBehind.offer(new Hoax())).isTrue();
+        assertThat(writeBehind.offer(new Hoax())).isFalse();
+    }
+
+    @Test
+    public void start_whenMoreThanBatchSizeIsQueued_flushesFullBatchesFirst() throws InterruptedException {
+        writeBehind = writeBehind(100, 10, Duration.ofMillis(50));
+        offer(25);
+
+        writeBehind.start();
+
+        awaitPending(0);
+        assertThat(flushedBatchSizes).containsExactly(10, 10, 5);
+    }
+
+    @Test
+    public void offer_whenBatchIsNotFull_flushesAfterMaxDelay() throws InterruptedException {
+        writeBehind = writeBehind(100, 10, Duration.ofMillis(20));
+        writeBehind.start();
+
+        offer(3);
+
+        awaitPending(0);
+        assertThat(flushedBatchSizes).containsExactly(3);
+    }
+
+    @Test
+    public void stop_whenHoaxesAreQueued_flushesThemBeforeReturning() throws InterruptedException {
+        writeBehind = writeBehind(100, 10, Duration.ofHours(1));
+        writeBehind.start();
+        offer(25);
+
+        writeBehind.stop();
+
+        assertThat(flushedBatchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(25);
+        assertThat(writeBehind.offer(new Hoax())).isFalse();
+    }
+
+    @Test
+    public void flush_whenBatchFails_savesHoaxesOneByOne() throws InterruptedException {
+        writeBehind = writeBehind(100, 10, Duration.ofMillis(20));
+        doThrow(new IllegalStateException("batch failed")).when(hoaxRepository).saveAll(anyList());
+        writeBehind.start();
+
+        offer(3);
+
+        awaitPending(0);
+        verify(hoaxRepository, times(3)).save(any(Hoax.class));
+    }
+
+    private HoaxWriteBehind writeBehind(int capacity, int batchSize, Duration maxDelay) {
+        when(hoaxRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<?> batch = invocation.getArgument(0);
+            flushedBatchSizes.add(batch.size());
+            return batch;
+        });
+        return new HoaxWriteBehind(hoaxRepository, mock(PlatformTransactionManager.class), mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), capacity, batchSize, maxDelay);
+    }
+
+    private void offer(int count) {
+        for (int i = 0; i < count; i++) {
+            writeBehind.offer(new Hoax());
+        }
+    }
+
+    private void awaitPending(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (writeBehind.getPending() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
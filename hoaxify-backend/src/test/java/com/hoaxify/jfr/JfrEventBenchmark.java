@@ -0,0 +1,62 @@
+package com.hoaxify.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+// Not a test: run the main method to measure what the event code in UserService.getUsers costs per
+// call when no recording is running, against the same work without it and with a recording on.
+public class JfrEventBenchmark {
+
+    private static final int OPERATIONS = 20_000_000;
+
+    private static final String[] USERNAMES = {"user1", "user22", "user333", "user4444"};
+
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        for (int round = 1; round <= 5; round++) {
+            report(round, "no event", run(false));
+            report(round, "event, no recording", run(true));
+            try (Recording recording = new Recording(Configuration.getConfiguration("default"))) {
+                recording.enable(UserPageQueryEvent.class);
+                recording.start();
+                report(round, "event, recording", run(true));
+            }
+        }
+        System.out.println(sink == 42 ? "" : "done");
+    }
+
+    private static long run(boolean withEvent) {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            sink += withEvent ? withEvent(i) : work(i);
+        }
+        return System.nanoTime() - start;
+    }
+
+    // stands in for building a page: a little work whose result is used
+    private static int work(int i) {
+        return USERNAMES[i & 3].hashCode() * 31 + i;
+    }
+
+    private static int withEvent(int i) {
+        UserPageQueryEvent event = UserPageQueryEvent.beginIfRecording();
+        int rows = work(i);
+        if (event == null) {
+            return rows;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.page = i;
+            event.size = 10;
+            event.rows = rows;
+            event.source = "database";
+            event.commit();
+        }
+        return rows;
+    }
+
+    private static void report(int round, String mode, long nanos) {
+        System.out.printf("round %d, %-20s %6.2f ns/op%n", round, mode + ":", (double) nanos / OPERATIONS);
+    }
+}
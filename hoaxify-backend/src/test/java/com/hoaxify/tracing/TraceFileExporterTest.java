@@ -0,0 +1,45 @@
+package com.hoaxify.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TraceFileExporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void export_appendsEachTraceAsOneJsonLine() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("traces/traces.jsonl");
+        TraceFileExporter exporter = new TraceFileExporter(objectMapper, new SimpleMeterRegistry(), file.toString(), 10);
+        Tracer tracer = new Tracer(List.of(exporter), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tracer, "maxSpansPerTrace", 10);
+
+        for (int i = 0; i < 2; i++) {
+            Span root = tracer.startTrace("GET /api/1.0/users");
+            Span.start("UserService.getUsers").tag("page", i).end();
+            root.end();
+        }
+        exporter.stop();
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        JsonNode trace = objectMapper.readTree(lines.get(1));
+        assertThat(trace.get("traceId").asText()).hasSize(32);
+        assertThat(trace.get("spans").get(1).get("name").asText()).isEqualTo("UserService.getUsers");
+        assertThat(trace.get("spans").get(1).get("tags").get("page").asText()).isEqualTo("1");
+    }
+}
@@ -0,0 +1,92 @@
+package com.hoaxify.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TracerTest {
+
+    List<Trace> exported = new ArrayList<>();
+
+    Tracer tracer = new Tracer(List.of(exported::add), new SimpleMeterRegistry());
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(tracer, "maxSpansPerTrace", 3);
+    }
+
+    @Test
+    public void start_outsideTrace_recordsNothing() {
+        try (Span span = Span.start("background work")) {
+            assertThat(span.isRecording()).isFalse();
+            assertThat(Span.currentTraceId()).isNull();
+        }
+        assertThat(exported).isEmpty();
+    }
+
+    @Test
+    public void startTrace_exportsNestedSpansWhenRootEnds() {
+        Span root = tracer.startTrace("GET /api/1.0/users");
+        String traceId = Span.currentTraceId();
+        try (Span service = Span.start("UserService.getUsers")) {
+            try (Span repository = Span.start("UserRepository.findAll")) {
+                repository.tag("rows", 10);
+            }
+            assertThat(exported).isEmpty();
+        }
+        root.end();
+
+        assertThat(exported).hasSize(1);
+        Trace trace = exported.get(0);
+        assertThat(trace.getTraceId()).isEqualTo(traceId).hasSize(32);
+        List<Span> spans = trace.getSpans();
+        assertThat(spans).extracting(Span::getName).containsExactly("GET /api/1.0/users", "UserService.getUsers", "UserRepository.findAll");
+        assertThat(spans.get(1).getParentId()).isEqualTo(spans.get(0).getSpanId());
+        assertThat(spans.get(2).getParentId()).isEqualTo(spans.get(1).getSpanId());
+        assertThat(spans.get(2).getTags()).containsEntry("rows", "10");
+    }
+
+    @Test
+    public void end_whenChildWasLeftOpen_clearsThreadWhenRootEnds() {
+        Span root = tracer.startTrace("GET /api/1.0/users");
+        Span.start("never ended");
+
+        root.end();
+
+        assertThat(Span.currentTraceId()).isNull();
+        assertThat(exported.get(0).getSpans()).extracting(Span::getName).containsExactly("GET /api/1.0/users");
+    }
+
+    @Test
+    public void end_whenSpanEndsEarly_nextSpanIsChildOfItsParent() {
+        Span root = tracer.startTrace("POST /api/1.0/login");
+        Span security = Span.start("security filter chain");
+        security.end();
+        Span.start("UserController.login").end();
+        security.end();
+        root.end();
+
+        List<Span> spans = exported.get(0).getSpans();
+        assertThat(spans).hasSize(3);
+        assertThat(spans.get(2).getParentId()).isEqualTo(root.getSpanId());
+    }
+
+    @Test
+    public void finished_whenTraceIsFull_countsDroppedSpans() {
+        Span root = tracer.startTrace("GET /api/1.0/users");
+        for (int i = 0; i < 5; i++) {
+            Span.start("UserRepository.findById").end();
+        }
+        root.end();
+
+        Trace trace = exported.get(0);
+        assertThat(trace.getSpans()).hasSize(4);
+        assertThat(trace.getDroppedSpans()).isEqualTo(2);
+    }
+}
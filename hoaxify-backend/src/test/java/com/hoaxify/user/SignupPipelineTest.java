@@ -0,0 +1,102 @@
+package com.hoaxify.user;
+
+import com.hoaxify.error.ConflictException;
+import com.hoaxify.user.vm.SignupStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SignupPipelineTest {
+
+    UserService userService = mock(UserService.class);
+
+    UsernameReservations usernameReservations = new UsernameReservations();
+
+    CountDownLatch saving = new CountDownLatch(1);
+
+    SignupPipeline pipeline = new SignupPipeline(userService, usernameReservations, new SimpleMeterRegistry(), 1, 1, Duration.ofMinutes(1));
+
+    @After
+    public void stop() throws InterruptedException {
+        saving.countDown();
+        pipeline.stop();
+    }
+
+    @Test
+    public void submit_whenUsernameIsAccepted_reservesItUntilSaved() throws Exception {
+        blockSaves();
+
+        String id = pipeline.submit(user("user1")).get();
+
+        assertThat(usernameReservations.isReserved("user1")).isTrue();
+        saving.countDown();
+        SignupStatus status = pipeline.getStatus(id).get().get(5, TimeUnit.SECONDS);
+        assertThat(status.getState()).isEqualTo(SignupStatus.State.SAVED);
+        awaitReleased("user1");
+    }
+
+    @Test
+    public void submit_whenUsernameIsAlreadyReserved_throwsConflict() {
+        blockSaves();
+        pipeline.submit(user("user1"));
+
+        assertThatThrownBy(() -> pipeline.submit(user("user1"))).isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    public void submit_whenQueueIsFull_refusesAndReleasesUsername() {
+        blockSaves();
+        pipeline.submit(user("user1"));
+        pipeline.submit(user("user2"));
+
+        Optional<String> refused = pipeline.submit(user("user3"));
+
+        assertThat(refused).isEmpty();
+        assertThat(usernameReservations.isReserved("user3")).isFalse();
+    }
+
+    @Test
+    public void submit_whenSaveFails_completesAsFailedAndReleasesUsername() throws Exception {
+        when(userService.save(any())).thenThrow(new IllegalStateException("database down"));
+
+        String id = pipeline.submit(user("user1")).get();
+
+        SignupStatus status = pipeline.getStatus(id).get().get(5, TimeUnit.SECONDS);
+        assertThat(status.getState()).isEqualTo(SignupStatus.State.FAILED);
+        awaitReleased("user1");
+    }
+
+    private void blockSaves() {
+        when(userService.save(any())).thenAnswer(invocation -> {
+            saving.await();
+            User user = invocation.getArgument(0);
+            user.setId(1);
+            return user;
+        });
+    }
+
+    private void awaitReleased(String username) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (usernameReservations.isReserved(username) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(usernameReservations.isReserved(username)).isFalse();
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+}
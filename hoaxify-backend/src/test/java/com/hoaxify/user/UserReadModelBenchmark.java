@@ -0,0 +1,77 @@
+package com.hoaxify.user;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Not a test: run the main method (with a large -Xmx) to compare the heap a user read model takes
+// against keeping the same users as entities in a HashMap keyed by username. Pass a user count as
+// the first argument to run with fewer than 5 million users.
+public class UserReadModelBenchmark {
+
+    // a bcrypt hash is what the entity holds in its password field
+    private static final String PASSWORD_HASH = "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+
+        long baseline = usedHeap();
+        UserReadModelStore store = fill(new UserReadModelStore(users, false), users);
+        long storeHeap = usedHeap() - baseline;
+        report("read model, heap", users, storeHeap, store);
+        store = null;
+
+        baseline = usedHeap();
+        UserReadModelStore offHeap = fill(new UserReadModelStore(users, true), users);
+        report("read model, off-heap", users, usedHeap() - baseline, offHeap);
+        offHeap = null;
+
+        baseline = usedHeap();
+        Map<String, User> map = new HashMap<>();
+        for (int id = 1; id <= users; id++) {
+            User user = new User();
+            user.setId(id);
+            user.setUsername(username(id));
+            user.setDisplayName(displayName(id));
+            user.setPassword(new String(PASSWORD_HASH.toCharArray()));
+            user.setImage(image(id));
+            user.setUpdatedAt(id);
+            map.put(user.getUsername(), user);
+        }
+        long mapHeap = usedHeap() - baseline;
+        System.out.printf("HashMap<String, User>: %,d users, %,d bytes of heap, %.1f bytes/user%n", map.size(), mapHeap, (double) mapHeap / users);
+        System.out.printf("read model on heap is %.1fx smaller%n", (double) mapHeap / storeHeap);
+    }
+
+    private static UserReadModelStore fill(UserReadModelStore store, int users) {
+        for (int id = 1; id <= users; id++) {
+            store.put(id, username(id), displayName(id), image(id));
+        }
+        return store;
+    }
+
+    private static String username(int id) {
+        return "user" + id;
+    }
+
+    private static String displayName(int id) {
+        return "Display Name " + id;
+    }
+
+    // most users never upload a profile image
+    private static String image(int id) {
+        return id % 4 == 0 ? "profile-" + Integer.toHexString(id * 31) + "a1b2c3d4e5f6a7b8c9d0.png" : null;
+    }
+
+    private static void report(String mode, int users, long heap, UserReadModelStore store) {
+        System.out.printf("%s: %,d users, %,d bytes of heap, %.1f bytes/user (store accounts for %,d bytes)%n",
+                mode, store.size(), heap, (double) heap / users, store.footprintBytes());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
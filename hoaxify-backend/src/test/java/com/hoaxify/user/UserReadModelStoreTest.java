@@ -0,0 +1,100 @@
+package com.hoaxify.user;
+
+import com.hoaxify.user.vm.UserVM;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserReadModelStoreTest {
+
+    UserReadModelStore store = new UserReadModelStore(4, false);
+
+    @Test
+    public void put_userCanBeFoundByIdAndUsername() {
+        store.put(7, "user7", "display7", "image7.png");
+
+        assertThat(store.toVM(store.findById(7))).isEqualTo(new UserVM(7, "user7", "display7", "image7.png"));
+        assertThat(store.findByUsername("user7")).isEqualTo(store.findById(7));
+        assertThat(store.findByUsername("user8")).isEqualTo(UserReadModelStore.ABSENT);
+    }
+
+    @Test
+    public void put_whenImageIsNullAndTextIsMultiByte_roundTrips() {
+        store.put(1, "ünïcødé", "表示名", null);
+
+        assertThat(store.toVM(store.findByUsername("ünïcødé"))).isEqualTo(new UserVM(1, "ünïcødé", "表示名", null));
+    }
+
+    @Test
+    public void put_whenUserExists_replacesFieldsAndReindexesUsername() {
+        store.put(1, "user1", "display1", null);
+        store.put(2, "user2", "display2", null);
+
+        store.put(1, "renamed", "new display", "image.png");
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.findByUsername("user1")).isEqualTo(UserReadModelStore.ABSENT);
+        assertThat(store.toVM(store.findByUsername("renamed"))).isEqualTo(new UserVM(1, "renamed", "new display", "image.png"));
+        assertThat(store.findByUsername("user2")).isNotEqualTo(UserReadModelStore.ABSENT);
+        assertThat(store.garbageBytes()).isGreaterThan(0);
+    }
+
+    @Test
+    public void put_whenManyUsersAreAdded_growsAndKeepsEveryUserReachable() {
+        UserReadModelStore offHeap = new UserReadModelStore(4, true);
+        for (int id = 1; id <= 10_000; id++) {
+            offHeap.put(id, "user" + id, "display" + id, null);
+        }
+
+        for (int id = 1; id <= 10_000; id++) {
+            int row = offHeap.findByUsername("user" + id);
+            assertThat(row).isEqualTo(offHeap.findById(id));
+            assertThat(offHeap.toVM(row).getDisplayName()).isEqualTo("display" + id);
+        }
+    }
+
+    @Test
+    public void put_whenUserIsUpdatedRepeatedly_reclaimsOldRecordsInsteadOfGrowing() {
+        for (int id = 1; id <= 4; id++) {
+            store.put(id, "user" + id, "display" + id, null);
+        }
+        long footprint = store.footprintBytes();
+
+        for (int i = 0; i < 100_000; i++) {
+            store.put(2, "user2", "display" + i, "image" + i + ".png");
+        }
+
+        assertThat(store.footprintBytes()).isEqualTo(footprint);
+        assertThat(store.toVM(store.findById(2)).getDisplayName()).isEqualTo("display99999");
+        assertThat(store.toVM(store.findByUsername("user4")).getDisplayName()).isEqualTo("display4");
+    }
+
+    @Test
+    public void page_returnsUsersInIdOrderEvenWhenAddedOutOfOrder() {
+        for (int id : new int[]{5, 1, 4, 2, 3}) {
+            store.put(id, "user" + id, "display" + id, null);
+        }
+
+        assertThat(ids(store.page(0, 10, UserReadModelStore.ABSENT))).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(ids(store.page(2, 2, UserReadModelStore.ABSENT))).containsExactly(3L, 4L);
+    }
+
+    @Test
+    public void page_whenUserIsExcluded_skipsItAcrossPages() {
+        for (int id = 1; id <= 6; id++) {
+            store.put(id, "user" + id, "display" + id, null);
+        }
+        int excluded = store.findByUsername("user3");
+
+        assertThat(ids(store.page(0, 2, excluded))).containsExactly(1L, 2L);
+        assertThat(ids(store.page(2, 2, excluded))).containsExactly(4L, 5L);
+        assertThat(ids(store.page(4, 2, excluded))).containsExactly(6L);
+    }
+
+    private List<Long> ids(List<UserVM> page) {
+        return page.stream().map(UserVM::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,41 @@
+package com.hoaxify.user;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UsernameNormalizerTest {
+
+    @Test
+    public void normalize_foldsCase() {
+        assertThat(UsernameNormalizer.normalize("User1")).isEqualTo("user1");
+    }
+
+    @Test
+    public void normalize_foldsCompatibilityForms() {
+        assertThat(UsernameNormalizer.normalize("ＵＳＥＲ１")).isEqualTo("user1");
+    }
+
+    @Test
+    public void normalize_foldsExpandingCases() {
+        assertThat(UsernameNormalizer.normalize("Straße")).isEqualTo(UsernameNormalizer.normalize("STRASSE"));
+    }
+
+    @Test
+    public void normalize_composesCombiningMarks() {
+        assertThat(UsernameNormalizer.normalize("Jose\u0301")).isEqualTo(UsernameNormalizer.normalize("JOS\u00c9"));
+    }
+
+    @Test
+    public void normalize_ignoresDefaultLocale() {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr"));
+        try {
+            assertThat(UsernameNormalizer.normalize("TITLE")).isEqualTo("title");
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+}
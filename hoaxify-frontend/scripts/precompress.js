@@ -0,0 +1,57 @@
+// Writes .br and .gz siblings next to every compressible file of a production build, so the
+// backend serves them as they are and never compresses static files per request.
+//
+//   node scripts/precompress.js [build-directory]
+
+const fs = require('fs');
+const path = require('path');
+const zlib = require('zlib');
+
+const COMPRESSIBLE = new Set(['.html', '.js', '.css', '.map', '.json', '.svg', '.txt', '.ico', '.webmanifest']);
+
+// below this a compressed variant saves less than the extra lookup costs
+const MIN_SIZE = 1024;
+
+const encoders = {
+  '.br': (data) => zlib.brotliCompressSync(data, {
+    params: {
+      [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+      [zlib.constants.BROTLI_PARAM_SIZE_HINT]: data.length
+    }
+  }),
+  '.gz': (data) => zlib.gzipSync(data, { level: zlib.constants.Z_BEST_COMPRESSION })
+};
+
+const files = (dir) => fs.readdirSync(dir, { withFileTypes: true }).flatMap((entry) => {
+  const file = path.join(dir, entry.name);
+  return entry.isDirectory() ? files(file) : [file];
+});
+
+const root = path.resolve(process.argv[2] || 'build');
+let original = 0;
+const written = { '.br': 0, '.gz': 0 };
+let count = 0;
+
+for (const file of files(root)) {
+  if (!COMPRESSIBLE.has(path.extname(file))) {
+    continue;
+  }
+  const data = fs.readFileSync(file);
+  if (data.length < MIN_SIZE) {
+    continue;
+  }
+  count++;
+  original += data.length;
+  for (const [extension, encode] of Object.entries(encoders)) {
+    const encoded = encode(data);
+    // a variant that is not smaller would only cost the client a decode
+    if (encoded.length < data.length) {
+      fs.writeFileSync(file + extension, encoded);
+      written[extension] += encoded.length;
+    }
+  }
+}
+
+const kb = (bytes) => (bytes / 1024).toFixed(1) + ' kB';
+console.log(`Precompressed ${count} files in ${path.relative(process.cwd(), root) || '.'}: `
+  + `${kb(original)} -> ${kb(written['.br'])} brotli, ${kb(written['.gz'])} gzip`);
@@ -15,6 +15,24 @@ export let listUsers = (param = {page: 0, size: 3}) => {
     return axios.get(path);
 };
 
+export const getUser = (username) => {
+    return axios.get(`/api/1.0/users/${username}`);
+};
+
+export const loadHoaxes = (before) => {
+    const path = before ? `/api/1.0/hoaxes?before=${before}` : '/api/1.0/hoaxes';
+    return axios.get(path);
+};
+
+export const subscribeToSignups = (onSignup) => {
+    if (typeof EventSource === 'undefined') {
+        return undefined;
+    }
+    const source = new EventSource('/api/1.0/signups/stream');
+    source.addEventListener('signup', (event) => onSignup(JSON.parse(event.data)));
+    return source;
+};
+
 export const setAuthorizationHeader = ({username, password, isLoggedIn}) => {
     if(isLoggedIn) {
         axios.defaults.headers.common['Authorization'] = `Basic ${btoa(username + ':' + password)}`
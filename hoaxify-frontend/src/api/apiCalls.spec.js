@@ -63,4 +63,29 @@ describe('apiCalls', () => {
         });
     })
 
+    describe('getUser', () => {
+        it('calls /api/1.0/users/user5 when user5 is provided for getUser', () => {
+            const mockGetUser = jest.fn();
+            axios.get = mockGetUser;
+            apiCalls.getUser('user5');
+            expect(mockGetUser.mock.calls[0][0]).toBe('/api/1.0/users/user5');
+        });
+    })
+
+    describe('loadHoaxes', () => {
+        it('calls /api/1.0/hoaxes when no cursor is provided for loadHoaxes', () => {
+            const mockGetHoaxes = jest.fn();
+            axios.get = mockGetHoaxes;
+            apiCalls.loadHoaxes();
+            expect(mockGetHoaxes).toBeCalledWith('/api/1.0/hoaxes');
+        });
+
+        it('calls /api/1.0/hoaxes?before=5 when 5 is provided for loadHoaxes', () => {
+            const mockGetHoaxes = jest.fn();
+            axios.get = mockGetHoaxes;
+            apiCalls.loadHoaxes(5);
+            expect(mockGetHoaxes).toBeCalledWith('/api/1.0/hoaxes?before=5');
+        });
+    })
+
 })
\ No newline at end of file
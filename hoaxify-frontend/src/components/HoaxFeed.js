@@ -0,0 +1,57 @@
+import React from "react";
+import * as apiCalls from "../api/apiCalls";
+
+class HoaxFeed extends React.Component {
+
+    state = {
+        hoaxes: [],
+        hasMore: true
+    }
+
+    loadHoaxes = (before) => {
+        apiCalls
+            .loadHoaxes(before)
+            .then((response) => {
+                this.setState((previous) => ({
+                    hoaxes: before ? [...previous.hoaxes, ...response.data] : response.data,
+                    hasMore: response.data.length > 0,
+                    loadError: undefined
+                }));
+            })
+            .catch((error) => {
+                this.setState({loadError: 'Hoax load failed'})
+            });
+    }
+
+    componentDidMount() {
+        this.loadHoaxes();
+    }
+
+    onClickLoadMore = () => {
+        const hoaxes = this.state.hoaxes;
+        this.loadHoaxes(hoaxes[hoaxes.length - 1].id);
+    }
+
+    render() {
+        return (
+            <div className="card" data-testid="hoaxfeed">
+                <div className="list-group list-group-flush">
+                    {this.state.hoaxes.map(hoax => (
+                        <div key={hoax.id} className="list-group-item">
+                            <span className="text-muted">{`${hoax.user.displayName}@${hoax.user.username}`}</span>
+                            <div>{hoax.content}</div>
+                        </div>
+                    ))}
+                </div>
+                {this.state.hasMore && this.state.hoaxes.length > 0 && (
+                    <span className="badge alert-secondary" style={{cursor: "pointer"}} onClick={this.onClickLoadMore}>
+                        load more
+                    </span>
+                )}
+                {this.state.loadError && (<span className="text-center text-danger">{this.state.loadError}</span>)}
+            </div>
+        );
+    }
+}
+
+export default HoaxFeed;
@@ -0,0 +1,156 @@
+import React from "react";
+import {fireEvent, render, waitFor} from "@testing-library/react";
+import HoaxFeed from './HoaxFeed';
+import * as apiCalls from '../api/apiCalls';
+
+const setup = () => {
+    return render(<HoaxFeed/>);
+};
+
+const hoax = (id) => ({
+    id: id,
+    content: `hoax number ${id}`,
+    date: 1561294668539,
+    user: {
+        id: 1,
+        username: 'user1',
+        displayName: 'display1',
+        image: ''
+    }
+});
+
+const mockSuccessGetFirstPage = {
+    data: [hoax(10), hoax(9), hoax(8)]
+};
+
+const mockSuccessGetNextPage = {
+    data: [hoax(7)]
+};
+
+const mockSuccessGetEmptyPage = {
+    data: []
+};
+
+const mockFailGet = {
+    response: {
+        data: {
+            message: 'Load error'
+        }
+    }
+};
+
+describe('HoaxFeed', () => {
+    describe('Lifecycle', () => {
+
+        it('calls loadHoaxes api when it is rendered', () => {
+            apiCalls.loadHoaxes = jest.fn().mockResolvedValue(mockSuccessGetEmptyPage);
+            setup();
+            expect(apiCalls.loadHoaxes).toHaveBeenCalledTimes(1);
+        });
+
+        it('calls loadHoaxes api without before when it is rendered', () => {
+            apiCalls.loadHoaxes = jest.fn().mockResolvedValue(mockSuccessGetEmptyPage);
+            setup();
+            expect(apiCalls.loadHoaxes).toHaveBeenCalledWith(undefined);
+        });
+    });
+
+    describe('Layout', () => {
+
+        it('displays 3 items when loadHoaxes api returns 3 hoaxes', async () => {
+            apiCalls.loadHoaxes = jest.fn().mockResolvedValue(mockSuccessGetFirstPage);
+            const {queryByTestId} = setup();
+            await waitFor(() => {
+                const feed = queryByTestId('hoaxfeed');
+                expect(feed.querySelectorAll('.list-group-item').length).toBe(3);
+            });
+        });
+
+        it('displays the displayName@username and content of the hoax', async () => {
+            apiCalls.loadHoaxes = jest.fn().mockResolvedValue(mockSuccessGetFirstPage);
+            const {queryByText} = setup();
+            await waitFor(() => {
+                expect(queryByText('hoax number 10')).toBeInTheDocument();
+            });
+            expect(queryByText('hoax number 10').previousSibling).toHaveTextContent('display1@user1');
+        });
+
+        it('displays load more when loadHoaxes api returns hoaxes', async () => {
+            apiCalls.loadHoaxes = jest.fn().mockResolvedValue(mockSuccessGetFirstPage);
+            const {queryByText} = setup();
+            await waitFor(() => {
+                expect(queryByText('load more')).toBeInTheDocument();
+            });
+        });
+
+        it('hides load more when there are no hoaxes', async () => {
+            apiCalls.loadHoaxes = jest.fn().mockResolvedValue(mockSuccessGetEmptyPage);
+            const {queryByText} = setup();
+            await waitFor(() => {
+                expect(apiCalls.loadHoaxes).toHaveBeenCalledTimes(1);
+            });
+            expect(queryByText('load more')).not.toBeInTheDocument();
+        });
+    });
+
+    describe('Interactions', () => {
+
+        it('calls loadHoaxes with the id of the last hoax when load more is clicked', async () => {
+            apiCalls.loadHoaxes = jest.fn()
+                .mockResolvedValueOnce(mockSuccessGetFirstPage)
+                .mockResolvedValueOnce(mockSuccessGetNextPage);
+            const {queryByText} = setup();
+            await waitFor(() => {
+                expect(queryByText('load more')).toBeInTheDocument();
+            });
+            fireEvent.click(queryByText('load more'));
+            expect(apiCalls.loadHoaxes).toHaveBeenLastCalledWith(8);
+        });
+
+        it('appends the next page below the hoaxes already shown', async () => {
+            apiCalls.loadHoaxes = jest.fn()
+                .mockResolvedValueOnce(mockSuccessGetFirstPage)
+                .mockResolvedValueOnce(mockSuccessGetNextPage);
+            const {queryByText, queryByTestId} = setup();
+            await waitFor(() => {
+                expect(queryByText('load more')).toBeInTheDocument();
+            });
+            fireEvent.click(queryByText('load more'));
+            await waitFor(() => {
+                expect(queryByText('hoax number 7')).toBeInTheDocument();
+            });
+            expect(queryByTestId('hoaxfeed').querySelectorAll('.list-group-item').length).toBe(4);
+        });
+
+        it('hides load more when the next page is empty', async () => {
+            apiCalls.loadHoaxes = jest.fn()
+                .mockResolvedValueOnce(mockSuccessGetFirstPage)
+                .mockResolvedValueOnce(mockSuccessGetEmptyPage);
+            const {queryByText} = setup();
+            await waitFor(() => {
+                expect(queryByText('load more')).toBeInTheDocument();
+            });
+            fireEvent.click(queryByText('load more'));
+            await waitFor(() => {
+                expect(queryByText('load more')).not.toBeInTheDocument();
+            });
+            expect(queryByText('hoax number 10')).toBeInTheDocument();
+        });
+
+        it('displays error message when loading more fails', async () => {
+            apiCalls.loadHoaxes = jest.fn()
+                .mockResolvedValueOnce(mockSuccessGetFirstPage)
+                .mockRejectedValueOnce(mockFailGet);
+            const {queryByText} = setup();
+            await waitFor(() => {
+                expect(queryByText('load more')).toBeInTheDocument();
+            });
+            fireEvent.click(queryByText('load more'));
+            await waitFor(() => {
+                expect(queryByText('Hoax load failed')).toBeInTheDocument();
+            });
+        });
+    });
+});
+console.error = () => {
+};
@@ -31,6 +31,31 @@ class UserList extends React.Component {
 
     componentDidMount() {
         this.loadData();
+        this.signups = apiCalls.subscribeToSignups(this.onSignup);
+    }
+
+    // the event carries the new user, so the first page shows it on top without asking the server again
+    onSignup = (user) => {
+        this.setState((previous) => {
+            const page = previous.page;
+            if (page.number !== 0 || page.content.some(existing => existing.username === user.username)) {
+                return null;
+            }
+            const content = [user, ...page.content];
+            return {
+                page: {
+                    ...page,
+                    content: content.slice(0, page.size),
+                    last: page.last && content.length <= page.size
+                }
+            };
+        });
+    }
+
+    componentWillUnmount() {
+        if (this.signups) {
+            this.signups.close();
+        }
     }
 
     onClickNext = () => {
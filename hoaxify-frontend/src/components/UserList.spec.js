@@ -1,5 +1,5 @@
 import React from "react";
-import {fireEvent, render, waitFor, waitForElement} from "@testing-library/react";
+import {act, fireEvent, render, waitFor, waitForElement} from "@testing-library/react";
 import UserList from './UserList';
 import * as apiCalls from '../api/apiCalls';
 import {MemoryRouter} from 'react-router-dom';
@@ -199,6 +199,72 @@ describe('UserList', () => {
 
     });
 
+    describe('Signups', () => {
+
+        const signedUp = {
+            username: 'user9',
+            displayName: 'display9',
+            image: ''
+        };
+
+        const subscribe = () => {
+            const source = {close: jest.fn()};
+            apiCalls.subscribeToSignups = jest.fn().mockImplementation((onSignup) => {
+                source.onSignup = onSignup;
+                return source;
+            });
+            return source;
+        };
+
+        it('subscribes to signups when it is rendered', () => {
+            apiCalls.listUsers = jest.fn().mockResolvedValue(mockedEmptySuccessResponse);
+            subscribe();
+            setup();
+            expect(apiCalls.subscribeToSignups).toHaveBeenCalledTimes(1);
+        });
+
+        it('shows the signed up user first and keeps the page size without reloading', async () => {
+            apiCalls.listUsers = jest.fn().mockResolvedValue(mockSuccessGetSinglePage);
+            const source = subscribe();
+            const {queryByText, queryByTestId} = setup();
+            await waitFor(() => {
+                expect(queryByText('display3@user3')).toBeInTheDocument();
+            });
+
+            act(() => source.onSignup(signedUp));
+
+            const userGroup = queryByTestId('usergroup');
+            expect(userGroup.childElementCount).toBe(3);
+            expect(userGroup.firstChild).toHaveTextContent('display9@user9');
+            expect(queryByText('display3@user3')).not.toBeInTheDocument();
+            expect(queryByText('next >')).toBeInTheDocument();
+            expect(apiCalls.listUsers).toHaveBeenCalledTimes(1);
+        });
+
+        it('ignores signups while another page is shown', async () => {
+            apiCalls.listUsers = jest.fn().mockResolvedValue(mockSuccessGetMultiPageLast);
+            const source = subscribe();
+            const {queryByText} = setup();
+            await waitFor(() => {
+                expect(queryByText('display4@user4')).toBeInTheDocument();
+            });
+
+            act(() => source.onSignup(signedUp));
+
+            expect(queryByText('display9@user9')).not.toBeInTheDocument();
+        });
+
+        it('closes the subscription when it is unmounted', () => {
+            apiCalls.listUsers = jest.fn().mockResolvedValue(mockedEmptySuccessResponse);
+            const source = subscribe();
+            const {unmount} = setup();
+
+            unmount();
+
+            expect(source.close).toHaveBeenCalledTimes(1);
+        });
+    });
+
     describe('Interactions', function () {
         it('loads next page when clicked to next button', async () => {
             apiCalls.listUsers = jest.fn().mockResolvedValueOnce(mockSuccessGetMultiPageFirst).mockResolvedValueOnce(mockSuccessGetMultiPageLast);
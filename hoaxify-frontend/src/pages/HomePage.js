@@ -1,11 +1,19 @@
 import React from "react";
 import UserList from "../components/UserList";
+import HoaxFeed from "../components/HoaxFeed";
 
 export class HomePage extends React.Component {
     render() {
         return (
             <div data-testid="homepage">
-                <UserList></UserList>
+                <div className="row">
+                    <div className="col-8">
+                        <HoaxFeed></HoaxFeed>
+                    </div>
+                    <div className="col-4">
+                        <UserList></UserList>
+                    </div>
+                </div>
             </div>
         );
     }
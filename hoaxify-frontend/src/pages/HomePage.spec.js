@@ -11,6 +11,10 @@ apiCalls.listUsers = jest.fn().mockResolvedValue({
     }
 });
 
+apiCalls.loadHoaxes = jest.fn().mockResolvedValue({
+    data: []
+});
+
 describe('HomePage', () => {
 
     describe('Layout', () => {